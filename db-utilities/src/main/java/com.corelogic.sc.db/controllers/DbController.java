@@ -5,13 +5,22 @@ import com.corelogic.sc.db.entities.Cart;
 import com.corelogic.sc.db.entities.Item;
 import com.corelogic.sc.db.entities.Product;
 import com.corelogic.sc.db.entities.ProductCategory;
+import com.corelogic.sc.db.requests.GenerateDataRequest;
+import com.corelogic.sc.db.responses.GenerateDataResponse;
+import com.corelogic.sc.db.responses.SnapshotResponse;
 import com.corelogic.sc.db.respositories.CartRepository;
 import com.corelogic.sc.db.respositories.ItemRepository;
 import com.corelogic.sc.db.respositories.ProductCategoryRepository;
 import com.corelogic.sc.db.respositories.ProductRepository;
+import com.corelogic.sc.db.services.DataGeneratorService;
+import com.corelogic.sc.db.services.SnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 
@@ -27,23 +36,28 @@ public class DbController {
 
     private ItemRepository itemRepository;
 
+    private DataGeneratorService dataGeneratorService;
+
+    private SnapshotService snapshotService;
+
     @Autowired
     public DbController(ProductCategoryRepository productCategoryRepository,
                         ProductRepository productRepository,
                         CartRepository cartRepository,
-                        ItemRepository itemRepository) {
+                        ItemRepository itemRepository,
+                        DataGeneratorService dataGeneratorService,
+                        SnapshotService snapshotService) {
         this.productCategoryRepository = productCategoryRepository;
         this.productRepository = productRepository;
         this.cartRepository = cartRepository;
         this.itemRepository = itemRepository;
+        this.dataGeneratorService = dataGeneratorService;
+        this.snapshotService = snapshotService;
     }
 
     @DeleteMapping(value = "/wipe")
-    public void wipe() {
-        itemRepository.deleteAll();
-        cartRepository.deleteAll();
-        productRepository.deleteAll();
-        productCategoryRepository.deleteAll();
+    public void wipe() throws SQLException {
+        snapshotService.truncate();
     }
 
     @PostMapping(value = "seed")
@@ -72,7 +86,7 @@ public class DbController {
                 .productName("iPhone 8S")
                 .description("Apple iPhone 8S")
                 .inventoryCount(100)
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .productCategory(productCategoryRepository.findByProductCategoryName("Electronics"))
                 .build();
 
@@ -83,7 +97,7 @@ public class DbController {
                 .productName("iPhone 9S")
                 .description("Apple iPhone 9S")
                 .inventoryCount(100)
-                .price(999.99)
+                .price(new BigDecimal("999.99"))
                 .productCategory(productCategoryRepository.findByProductCategoryName("Electronics"))
                 .build();
 
@@ -94,7 +108,7 @@ public class DbController {
                 .productName("iPad 10")
                 .description("Apple iPad 10")
                 .inventoryCount(149)
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .productCategory(productCategoryRepository.findByProductCategoryName("Electronics"))
                 .build();
 
@@ -105,7 +119,7 @@ public class DbController {
                 .productName("Toro Mower 567")
                 .description("Toro Mower 567")
                 .inventoryCount(149)
-                .price(1299.99)
+                .price(new BigDecimal("1299.99"))
                 .productCategory(productCategoryRepository.findByProductCategoryName("Lawn & Garden"))
                 .build();
         productRepository.saveAll(Arrays.asList(iphone8s, iphone9s, iPad10, toroMower));
@@ -143,8 +157,31 @@ public class DbController {
     }
 
     @PostMapping(value = "reseed")
-    public void reseed() {
+    public void reseed() throws SQLException {
         this.wipe();
         this.seed();
     }
+
+    @PostMapping(value = "generate")
+    public GenerateDataResponse generate(@RequestBody(required = false) GenerateDataRequest generateDataRequest)
+            throws Exception {
+        return dataGeneratorService.generate(generateDataRequest == null
+                ? new GenerateDataRequest()
+                : generateDataRequest);
+    }
+
+    @PostMapping(value = "snapshots/{name}")
+    public SnapshotResponse snapshot(@PathVariable("name") String name) throws Exception {
+        return snapshotService.snapshot(name);
+    }
+
+    @PostMapping(value = "snapshots/{name}/restore")
+    public SnapshotResponse restore(@PathVariable("name") String name) throws Exception {
+        return snapshotService.restore(name);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> invalidRequest(IllegalArgumentException exception) {
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 }
@@ -17,7 +17,10 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"cart", "product", "createdDate"})
 public class Item implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled: every sequence value reserves the 50 ids below it, so inserts are batched and JDBC inserts using the
+    // column default never collide with ids Hibernate hands out
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_id_seq")
+    @SequenceGenerator(name = "item_id_seq", sequenceName = "item_id_seq", allocationSize = 50)
     @Column(name = "item_id")
     private Long itemId;
 
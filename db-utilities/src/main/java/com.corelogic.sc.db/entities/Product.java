@@ -18,6 +18,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -42,8 +43,8 @@ public class Product implements Serializable {
     @Column(name = "inventory_count")
     private Integer inventoryCount;
 
-    @Column(name = "price")
-    private Double price;
+    @Column(name = "price", precision = 12, scale = 2)
+    private BigDecimal price;
 
     @Column(name = "created_date")
     private LocalDateTime createdDate;
@@ -0,0 +1,30 @@
+package com.corelogic.sc.db.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenerateDataRequest {
+
+    private Integer categories;
+
+    private Integer products;
+
+    private Integer carts;
+
+    private Integer itemsPerCart;
+
+    /**
+     * Zipf exponent of sku# popularity across cart items: 0 is uniform, around 1 is typical retail skew.
+     */
+    private Double skew;
+
+    private Integer workers;
+
+    private Long seed;
+}
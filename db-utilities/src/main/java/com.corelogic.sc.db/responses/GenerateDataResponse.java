@@ -0,0 +1,21 @@
+package com.corelogic.sc.db.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class GenerateDataResponse {
+
+    private Long categories;
+
+    private Long products;
+
+    private Long carts;
+
+    private Long items;
+
+    private Long elapsedMillis;
+}
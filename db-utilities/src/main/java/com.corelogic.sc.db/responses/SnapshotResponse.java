@@ -0,0 +1,17 @@
+package com.corelogic.sc.db.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SnapshotResponse {
+
+    private String name;
+
+    private String schemaVersion;
+
+    private Long elapsedMillis;
+}
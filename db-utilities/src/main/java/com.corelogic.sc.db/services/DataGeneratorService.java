@@ -0,0 +1,242 @@
+package com.corelogic.sc.db.services;
+
+import com.corelogic.sc.db.requests.GenerateDataRequest;
+import com.corelogic.sc.db.responses.GenerateDataResponse;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a synthetic catalog with carts and streams it into Postgres with COPY. Each table is split into one
+ * contiguous key range per worker, and every worker streams its range over its own connection. Cart items pick
+ * sku#s from a Zipf distribution, so a few products are in most carts as in production. Meant for an empty (wiped)
+ * database: generated keys do not collide with the seed data, but they do with a previous generate run.
+ */
+@Service
+public class DataGeneratorService {
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String COPY_PRODUCT_CATEGORY =
+            "COPY product_category (product_category_name, description, created_date) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_PRODUCT = "COPY product " +
+            "(created_date, sku_number, product_name, description, inventory_count, price, product_category_name) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_CART =
+            "COPY cart (cart_name, description, status, created_date) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_ITEM =
+            "COPY item (quantity, status, created_date, sku_number, cart_name) FROM STDIN WITH (FORMAT csv)";
+
+    private DataSource dataSource;
+
+    private int maxWorkers;
+
+    @Autowired
+    public DataGeneratorService(DataSource dataSource, @Value("${db.generate.max-workers:8}") int maxWorkers) {
+        this.dataSource = dataSource;
+        this.maxWorkers = maxWorkers;
+    }
+
+    public GenerateDataResponse generate(GenerateDataRequest generateDataRequest)
+            throws InterruptedException, ExecutionException, SQLException {
+        int categories = valueOrDefault(generateDataRequest.getCategories(), 10);
+        int products = valueOrDefault(generateDataRequest.getProducts(), 100000);
+        int carts = valueOrDefault(generateDataRequest.getCarts(), 10000);
+        int itemsPerCart = valueOrDefault(generateDataRequest.getItemsPerCart(), 10);
+        double skew = generateDataRequest.getSkew() == null ? 1.0 : generateDataRequest.getSkew();
+        // every worker holds a pooled connection for its whole COPY, so never run more workers than the pool can serve
+        int workers = Math.min(maxWorkers,
+                valueOrDefault(generateDataRequest.getWorkers(), Runtime.getRuntime().availableProcessors()));
+        long seed = generateDataRequest.getSeed() == null ? 42L : generateDataRequest.getSeed();
+
+        if (categories < 1 || products < 1 || carts < 0 || workers < 1) {
+            throw new IllegalArgumentException("categories, products and workers must be at least 1 and carts at least 0");
+        }
+        if (itemsPerCart < 0 || itemsPerCart > products) {
+            throw new IllegalArgumentException("itemsPerCart must be between 0 and the number of products");
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative");
+        }
+
+        long start = System.nanoTime();
+        String createdDate = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+        String[] categoryNames = new String[categories];
+        for (int index = 0; index < categories; index++) {
+            categoryNames[index] = "Category " + index;
+        }
+        double[] skuPopularity = cumulativeZipf(products, skew);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            copyInParallel(executor, 1, seed, categories, COPY_PRODUCT_CATEGORY, (index, random, rows) -> rows
+                    .append(categoryNames[(int) index]).append(",Generated category ").append(index)
+                    .append(',').append(createdDate).append('\n'));
+
+            copyInParallel(executor, workers, seed, products, COPY_PRODUCT, (index, random, rows) -> {
+                rows.append(createdDate).append(',');
+                appendSkuNumber(rows, index);
+                rows.append(",Product ").append(index)
+                        .append(",Generated product ").append(index)
+                        .append(',').append(1000 + random.nextInt(100000))
+                        .append(',');
+                appendPrice(rows, 100 + random.nextInt(200000));
+                rows.append(',').append(categoryNames[(int) (index % categories)]).append('\n');
+            });
+
+            copyInParallel(executor, workers, seed, carts, COPY_CART, (index, random, rows) -> {
+                appendCartName(rows, index);
+                rows.append(",Generated cart ").append(index)
+                        .append(",ACTIVE,").append(createdDate).append('\n');
+            });
+
+            copyInParallel(executor, workers, seed, carts, COPY_ITEM, (index, random, rows) -> {
+                Set<Integer> skuIndexes = new HashSet<>();
+                while (skuIndexes.size() < itemsPerCart) {
+                    int skuIndex = sample(skuPopularity, random);
+                    while (!skuIndexes.add(skuIndex)) {
+                        skuIndex = (skuIndex + 1) % products;
+                    }
+                    rows.append(1 + random.nextInt(3)).append(",ITEM_ACTIVE,").append(createdDate).append(',');
+                    appendSkuNumber(rows, skuIndex);
+                    rows.append(',');
+                    appendCartName(rows, index);
+                    rows.append('\n');
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String table : Arrays.asList("product_category", "product", "cart", "item")) {
+                statement.execute("ANALYZE " + table);
+            }
+        }
+
+        return GenerateDataResponse
+                .builder()
+                .categories((long) categories)
+                .products((long) products)
+                .carts((long) carts)
+                .items((long) carts * itemsPerCart)
+                .elapsedMillis((System.nanoTime() - start) / 1000000)
+                .build();
+    }
+
+    private void copyInParallel(ExecutorService executor, int workers, long seed, long rowCount, String copySql,
+                                RowWriter rowWriter) throws InterruptedException, ExecutionException {
+        long rangeSize = (rowCount + workers - 1) / workers;
+        List<Future<Void>> futures = new ArrayList<>();
+        for (long from = 0; from < rowCount; from += rangeSize) {
+            long rangeStart = from;
+            long rangeEnd = Math.min(rowCount, from + rangeSize);
+            SplittableRandom random = new SplittableRandom(seed * 31 + rangeStart);
+            futures.add(executor.submit(() -> {
+                copyIn(copySql, rangeStart, rangeEnd, random, rowWriter);
+                return null;
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+    }
+
+    private void copyIn(String copySql, long from, long to, SplittableRandom random, RowWriter rowWriter) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+            try {
+                StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+                for (long index = from; index < to; index++) {
+                    rowWriter.write(index, random, rows);
+                    if (rows.length() >= COPY_BUFFER_SIZE) {
+                        writeToCopy(copyIn, rows);
+                    }
+                }
+                writeToCopy(copyIn, rows);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private static double[] cumulativeZipf(int products, double skew) {
+        double[] cumulative = new double[products];
+        double total = 0;
+        for (int rank = 0; rank < products; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private static void appendSkuNumber(StringBuilder rows, long index) {
+        appendPadded(rows.append("GEN"), index, 9);
+    }
+
+    private static void appendCartName(StringBuilder rows, long index) {
+        appendPadded(rows.append("GenCart"), index, 9);
+    }
+
+    private static void appendPadded(StringBuilder rows, long value, int width) {
+        String digits = Long.toString(value);
+        for (int padding = digits.length(); padding < width; padding++) {
+            rows.append('0');
+        }
+        rows.append(digits);
+    }
+
+    private static void appendPrice(StringBuilder rows, int cents) {
+        rows.append(cents / 100).append('.');
+        appendPadded(rows, cents % 100, 2);
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(long index, SplittableRandom random, StringBuilder rows);
+    }
+}
@@ -0,0 +1,221 @@
+package com.corelogic.sc.db.services;
+
+import com.corelogic.sc.db.responses.SnapshotResponse;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Truncates the shopping cart tables, and saves or restores named snapshots of them as binary COPY files. A
+ * snapshot dumps every table in parallel from one exported transaction snapshot, so the files are consistent with
+ * each other. A restore truncates, then loads the tables in parallel one foreign key level at a time. Snapshots
+ * record the Flyway schema version and are only restored onto the same version.
+ */
+@Service
+public class SnapshotService {
+
+    private static final List<List<String>> TABLE_LEVELS = Arrays.asList(
+            Arrays.asList("product_category", "cart"),
+            Arrays.asList("product"),
+            Arrays.asList("item"));
+
+    private static final String TRUNCATE_TABLES =
+            "TRUNCATE TABLE item, cart, product, product_category RESTART IDENTITY CASCADE";
+
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final String MANIFEST = "manifest.properties";
+
+    private DataSource dataSource;
+
+    private Path snapshotDirectory;
+
+    @Autowired
+    public SnapshotService(DataSource dataSource,
+                           @Value("${db.snapshot.directory:${java.io.tmpdir}/shoppingcart-snapshots}") String snapshotDirectory) {
+        this.dataSource = dataSource;
+        this.snapshotDirectory = Paths.get(snapshotDirectory);
+    }
+
+    public void truncate() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(TRUNCATE_TABLES);
+        }
+    }
+
+    public SnapshotResponse snapshot(String name) throws Exception {
+        long start = System.nanoTime();
+        Path directory = snapshotPath(name);
+        Files.createDirectories(directory);
+
+        try (Connection coordinator = dataSource.getConnection()) {
+            boolean autoCommit = coordinator.getAutoCommit();
+            coordinator.setAutoCommit(false);
+            coordinator.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                String exportedSnapshot = queryString(coordinator, "SELECT pg_export_snapshot()");
+                String schemaVersion = schemaVersion(coordinator);
+
+                List<String> tables = new ArrayList<>();
+                TABLE_LEVELS.forEach(tables::addAll);
+                inParallel(tables, table -> copyOut(exportedSnapshot, table, directory.resolve(table + ".bin")));
+
+                Properties manifest = new Properties();
+                manifest.setProperty("schemaVersion", schemaVersion);
+                try (OutputStream outputStream = Files.newOutputStream(directory.resolve(MANIFEST))) {
+                    manifest.store(outputStream, "shoppingcart snapshot " + name);
+                }
+
+                return SnapshotResponse
+                        .builder()
+                        .name(name)
+                        .schemaVersion(schemaVersion)
+                        .elapsedMillis((System.nanoTime() - start) / 1000000)
+                        .build();
+            } finally {
+                coordinator.rollback();
+                coordinator.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    public SnapshotResponse restore(String name) throws Exception {
+        long start = System.nanoTime();
+        Path directory = snapshotPath(name);
+        Path manifestPath = directory.resolve(MANIFEST);
+        if (!Files.exists(manifestPath)) {
+            throw new IllegalArgumentException("Snapshot " + name + " does not exist");
+        }
+        Properties manifest = new Properties();
+        try (InputStream inputStream = Files.newInputStream(manifestPath)) {
+            manifest.load(inputStream);
+        }
+
+        String schemaVersion;
+        try (Connection connection = dataSource.getConnection()) {
+            schemaVersion = schemaVersion(connection);
+        }
+        if (!schemaVersion.equals(manifest.getProperty("schemaVersion"))) {
+            throw new IllegalArgumentException("Snapshot " + name + " was taken at schema version "
+                    + manifest.getProperty("schemaVersion") + " but the database is at " + schemaVersion);
+        }
+
+        truncate();
+        for (List<String> tables : TABLE_LEVELS) {
+            inParallel(tables, table -> copyIn(table, directory.resolve(table + ".bin")));
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // item_id_seq is pooled by 50: the next value must leave the 50 ids below it unused
+            statement.execute("SELECT setval('item_id_seq', COALESCE((SELECT max(item_id) FROM item), 0) + 50, false)");
+            for (List<String> tables : TABLE_LEVELS) {
+                for (String table : tables) {
+                    statement.execute("ANALYZE " + table);
+                }
+            }
+        }
+
+        return SnapshotResponse
+                .builder()
+                .name(name)
+                .schemaVersion(schemaVersion)
+                .elapsedMillis((System.nanoTime() - start) / 1000000)
+                .build();
+    }
+
+    private void copyOut(String exportedSnapshot, String table, Path file) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + exportedSnapshot + "'");
+                }
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + table + " TO STDOUT WITH (FORMAT binary)", outputStream);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void copyIn(String table, Path file) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             InputStream inputStream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " FROM STDIN WITH (FORMAT binary)", inputStream);
+        }
+    }
+
+    private Path snapshotPath(String name) {
+        if (name == null || !SNAPSHOT_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Snapshot names may only contain letters, digits, '-' and '_'");
+        }
+        return snapshotDirectory.resolve(name);
+    }
+
+    private static String schemaVersion(Connection connection) throws SQLException {
+        return queryString(connection,
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank DESC LIMIT 1");
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static void inParallel(List<String> tables, TableTask tableTask) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(tables.size());
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (String table : tables) {
+                futures.add(executor.submit(() -> {
+                    tableTask.run(table);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TableTask {
+        void run(String table) throws Exception;
+    }
+}
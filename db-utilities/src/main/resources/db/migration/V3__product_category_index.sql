@@ -0,0 +1,2 @@
+CREATE INDEX IDX_PRODUCT_PRODUCT_CATEGORY_NAME_SKU_NUMBER
+  ON PRODUCT (PRODUCT_CATEGORY_NAME, SKU_NUMBER);
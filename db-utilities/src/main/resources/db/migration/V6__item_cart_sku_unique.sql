@@ -0,0 +1,18 @@
+UPDATE ITEM
+SET QUANTITY = MERGED.QUANTITY
+FROM (SELECT MIN(ITEM_ID) AS ITEM_ID, SUM(QUANTITY) AS QUANTITY
+      FROM ITEM
+      GROUP BY CART_NAME, SKU_NUMBER
+      HAVING COUNT(*) > 1) MERGED
+WHERE ITEM.ITEM_ID = MERGED.ITEM_ID;
+
+DELETE FROM ITEM DUPLICATE
+USING ITEM KEPT
+WHERE DUPLICATE.CART_NAME = KEPT.CART_NAME
+  AND DUPLICATE.SKU_NUMBER = KEPT.SKU_NUMBER
+  AND DUPLICATE.ITEM_ID > KEPT.ITEM_ID;
+
+DROP INDEX IDX_ITEM_CART_NAME_SKU_NUMBER;
+
+ALTER TABLE ITEM
+  ADD CONSTRAINT UK_ITEM_CART_NAME_SKU_NUMBER UNIQUE (CART_NAME, SKU_NUMBER);
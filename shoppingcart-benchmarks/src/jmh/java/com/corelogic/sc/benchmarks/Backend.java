@@ -0,0 +1,14 @@
+package com.corelogic.sc.benchmarks;
+
+public enum Backend {
+
+    /**
+     * Services wired to map backed repository stand-ins: measures the service code alone.
+     */
+    IN_MEMORY,
+
+    /**
+     * The full Spring context against a throwaway embedded PostgreSQL migrated with the service's Flyway scripts.
+     */
+    EMBEDDED_DATABASE
+}
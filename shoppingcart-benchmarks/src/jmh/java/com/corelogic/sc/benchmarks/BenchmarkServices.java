@@ -0,0 +1,195 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.ShoppingCartServiceApplication;
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.ProductCatalogCache;
+import com.corelogic.sc.caches.ReadCoalescer;
+import com.corelogic.sc.requests.AddCartRequest;
+import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.AddProductCategoryRequest;
+import com.corelogic.sc.requests.AddProductRequest;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductCategoryRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import com.corelogic.sc.services.CartService;
+import com.corelogic.sc.services.ItemService;
+import com.corelogic.sc.services.ProductCategoryService;
+import com.corelogic.sc.services.ProductService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The four services under benchmark, wired to either backend, plus helpers to seed a catalog and carts of a given
+ * size. Catalogs are bulk loaded through JDBC on the database backend so large catalogs stay cheap to set up.
+ */
+class BenchmarkServices implements AutoCloseable {
+
+    static final String PRODUCT_CATEGORY_NAME = "Benchmark";
+
+    static final int INVENTORY_COUNT = Integer.MAX_VALUE / 2;
+
+    static final BigDecimal PRICE = new BigDecimal("9.99");
+
+    private ItemService itemService;
+
+    private CartService cartService;
+
+    private ProductService productService;
+
+    private ProductCategoryService productCategoryService;
+
+    private EmbeddedPostgres embeddedPostgres;
+
+    private ConfigurableApplicationContext applicationContext;
+
+    private BenchmarkServices() {
+    }
+
+    static BenchmarkServices create(Backend backend) throws Exception {
+        BenchmarkServices benchmarkServices = new BenchmarkServices();
+        if (backend == Backend.IN_MEMORY) {
+            InMemoryRepositories repositories = new InMemoryRepositories();
+            ProductRepository productRepository = repositories.productRepository();
+            ProductCategoryRepository productCategoryRepository = repositories.productCategoryRepository();
+            CartRepository cartRepository = repositories.cartRepository();
+            ItemRepository itemRepository = repositories.itemRepository();
+            ReadCoalescer readCoalescer = new ReadCoalescer(1000);
+            // never rebuilt, so it lets every key through like the database-backed services
+            KnownKeysFilter knownKeysFilter = new KnownKeysFilter(0.01, 10000);
+            // nobody subscribes to cart events here
+            ApplicationEventPublisher eventPublisher = event -> {
+            };
+
+            benchmarkServices.itemService = new ItemService(Clock.systemDefaultZone(), itemRepository, cartRepository, productRepository,
+                    knownKeysFilter, eventPublisher);
+            benchmarkServices.cartService = new CartService(cartRepository, itemRepository, productRepository, readCoalescer,
+                    knownKeysFilter, eventPublisher);
+            benchmarkServices.productService = new ProductService(productRepository, productCategoryRepository,
+                    new ProductCatalogCache(10000, 1000, 60000), readCoalescer, knownKeysFilter);
+            benchmarkServices.productCategoryService = new ProductCategoryService(productCategoryRepository);
+        } else {
+            benchmarkServices.embeddedPostgres = EmbeddedPostgres.start();
+            benchmarkServices.applicationContext = new SpringApplicationBuilder(ShoppingCartServiceApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.main.banner-mode=off",
+                            "logging.level.root=WARN",
+                            "spring.datasource.url=" + benchmarkServices.embeddedPostgres.getJdbcUrl("postgres", "postgres")
+                                    + "&currentSchema=shoppingcart&reWriteBatchedInserts=true",
+                            "spring.datasource.username=postgres",
+                            "spring.datasource.password=",
+                            "spring.flyway.locations=classpath:/db/migration",
+                            "metrics.methods.enabled=false",
+                            "sql.instrumentation.enabled=false",
+                            "spring.jpa.properties.hibernate.generate_statistics=false",
+                            "cart.expiry.enabled=false")
+                    .run();
+
+            benchmarkServices.itemService = benchmarkServices.applicationContext.getBean(ItemService.class);
+            benchmarkServices.cartService = benchmarkServices.applicationContext.getBean(CartService.class);
+            benchmarkServices.productService = benchmarkServices.applicationContext.getBean(ProductService.class);
+            benchmarkServices.productCategoryService = benchmarkServices.applicationContext.getBean(ProductCategoryService.class);
+        }
+        return benchmarkServices;
+    }
+
+    static String skuNumber(int index) {
+        return String.format("BENCH%06d", index);
+    }
+
+    ItemService itemService() {
+        return itemService;
+    }
+
+    CartService cartService() {
+        return cartService;
+    }
+
+    ProductService productService() {
+        return productService;
+    }
+
+    ProductCategoryService productCategoryService() {
+        return productCategoryService;
+    }
+
+    /**
+     * Looks up a bean of the Spring context; only available on the {@link Backend#EMBEDDED_DATABASE} backend.
+     */
+    <T> T bean(Class<T> beanType) {
+        if (applicationContext == null) {
+            throw new IllegalStateException("Beans are only available on the " + Backend.EMBEDDED_DATABASE + " backend");
+        }
+        return applicationContext.getBean(beanType);
+    }
+
+    void seedCatalog(int catalogSize) {
+        productCategoryService.addProductCategory(AddProductCategoryRequest
+                .builder()
+                .productCategoryName(PRODUCT_CATEGORY_NAME)
+                .description("Benchmark products")
+                .build());
+
+        if (applicationContext == null) {
+            for (int index = 0; index < catalogSize; index++) {
+                productService.addProduct(AddProductRequest
+                        .builder()
+                        .skuNumber(skuNumber(index))
+                        .productName("Product " + index)
+                        .description("Benchmark product " + index)
+                        .inventoryCount(INVENTORY_COUNT)
+                        .price(PRICE)
+                        .productCategoryName(PRODUCT_CATEGORY_NAME)
+                        .build());
+            }
+            return;
+        }
+
+        Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(catalogSize);
+        for (int index = 0; index < catalogSize; index++) {
+            rows.add(new Object[]{createdDate, skuNumber(index), "Product " + index, "Benchmark product " + index,
+                    INVENTORY_COUNT, PRICE, PRODUCT_CATEGORY_NAME});
+        }
+        applicationContext.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO product " +
+                "(created_date, sku_number, product_name, description, inventory_count, price, product_category_name) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Creates a cart holding one unit of each of the first {@code cartSize} catalog products.
+     */
+    void seedCart(String cartName, int cartSize) throws Exception {
+        cartService.createCart(AddCartRequest.builder().cartName(cartName).description(cartName).build());
+        for (int index = 0; index < cartSize; index++) {
+            itemService.addItem(AddItemRequest
+                    .builder()
+                    .cartName(cartName)
+                    .skuNumber(skuNumber(index))
+                    .quantity(1)
+                    .build(), null);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+}
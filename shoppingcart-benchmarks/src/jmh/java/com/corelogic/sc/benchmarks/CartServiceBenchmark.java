@@ -0,0 +1,62 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.requests.DeleteCartRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deleting a cart should cost the same whatever its size; every invocation deletes a freshly seeded cart of
+ * {@code cartSize} lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartServiceBenchmark {
+
+    @Param({"IN_MEMORY", "EMBEDDED_DATABASE"})
+    public Backend backend;
+
+    @Param({"1000"})
+    public int catalogSize;
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private BenchmarkServices services;
+
+    private int cartCount;
+
+    private String cartName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = BenchmarkServices.create(backend);
+        services.seedCatalog(catalogSize);
+    }
+
+    @Setup(Level.Invocation)
+    public void seedCart() throws Exception {
+        cartName = "BenchmarkCart" + cartCount++;
+        services.seedCart(cartName, cartSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        services.close();
+    }
+
+    @Benchmark
+    public void deleteCart() throws Exception {
+        services.cartService().deleteCart(DeleteCartRequest.builder().cartName(cartName).build(), null);
+    }
+}
@@ -0,0 +1,334 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.entities.Cart;
+import com.corelogic.sc.entities.Item;
+import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.entities.ProductCategory;
+import com.corelogic.sc.responses.CartSummaryResponse;
+import com.corelogic.sc.responses.ItemResponse;
+import com.corelogic.sc.responses.ItemStatus;
+import com.corelogic.sc.responses.ProductCategoryResponse;
+import com.corelogic.sc.responses.ProductResponse;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductCategoryRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import com.corelogic.sc.respositories.ProductRepository.InventoryCount;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Map backed stand-ins for the Spring Data repositories. Only the methods the services call are implemented; they
+ * mirror the semantics of the queries closely enough to benchmark the service code without any database cost.
+ * Anything else throws {@link UnsupportedOperationException}. Not thread safe: benchmarks run single threaded.
+ */
+class InMemoryRepositories {
+
+    private final Map<String, ProductCategory> productCategories = new TreeMap<>();
+
+    private final TreeMap<String, Product> products = new TreeMap<>();
+
+    private final Map<String, Cart> carts = new HashMap<>();
+
+    private final Map<Long, Item> items = new LinkedHashMap<>();
+
+    private long nextItemId = 1;
+
+    ProductCategoryRepository productCategoryRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findByProductCategoryName", args -> productCategories.get((String) args[0]));
+        methods.put("save", args -> {
+            ProductCategory productCategory = (ProductCategory) args[0];
+            productCategories.put(productCategory.getProductCategoryName(), productCategory);
+            return productCategory;
+        });
+        methods.put("findProductCategoryResponses", args -> productCategories.values()
+                .stream()
+                .map(this::productCategoryResponse)
+                .collect(Collectors.toList()));
+        methods.put("findProductCategoryResponseByProductCategoryName", args -> {
+            ProductCategory productCategory = productCategories.get((String) args[0]);
+            return productCategory == null ? null : productCategoryResponse(productCategory);
+        });
+        return repository(ProductCategoryRepository.class, methods);
+    }
+
+    ProductRepository productRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findBySkuNumber", args -> products.get((String) args[0]));
+        methods.put("findBySkuNumberIn", args -> skuNumbers(args[0])
+                .stream()
+                .map(products::get)
+                .filter(product -> product != null)
+                .collect(Collectors.toList()));
+        methods.put("save", args -> {
+            Product product = (Product) args[0];
+            products.put(product.getSkuNumber(), product);
+            return product;
+        });
+        methods.put("findInventoryCountBySkuNumber", args -> {
+            Product product = products.get((String) args[0]);
+            return product == null ? null : product.getInventoryCount();
+        });
+        methods.put("findInventoryCountsBySkuNumbers", args -> skuNumbers(args[0])
+                .stream()
+                .map(products::get)
+                .filter(product -> product != null)
+                .map(InMemoryRepositories::inventoryCount)
+                .collect(Collectors.toList()));
+        methods.put("decrementInventoryCount", args -> {
+            Product product = products.get((String) args[0]);
+            int quantity = (Integer) args[1];
+            if (product == null || product.getInventoryCount() < quantity) {
+                return 0;
+            }
+            product.setInventoryCount(product.getInventoryCount() - quantity);
+            return 1;
+        });
+        methods.put("incrementInventoryCount", args -> {
+            Product product = products.get((String) args[0]);
+            if (product == null) {
+                return 0;
+            }
+            product.setInventoryCount(product.getInventoryCount() + (Integer) args[1]);
+            return 1;
+        });
+        methods.put("restoreInventoryCountsForCart", args -> {
+            Map<String, Integer> reserved = new HashMap<>();
+            itemsOfCart((String) args[0]).forEach(item ->
+                    reserved.merge(item.getProduct().getSkuNumber(), item.getQuantity(), Integer::sum));
+            reserved.forEach((skuNumber, quantity) -> {
+                Product product = products.get(skuNumber);
+                product.setInventoryCount(product.getInventoryCount() + quantity);
+            });
+            return reserved.size();
+        });
+        methods.put("adjustInventoryCounts", args -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> quantitiesBySkuNumber = (Map<String, Integer>) args[0];
+            List<String> insufficientSkuNumbers = new ArrayList<>();
+            quantitiesBySkuNumber.forEach((skuNumber, quantity) -> {
+                Product product = products.get(skuNumber);
+                if (product == null || product.getInventoryCount() < quantity) {
+                    insufficientSkuNumbers.add(skuNumber);
+                }
+            });
+            if (insufficientSkuNumbers.isEmpty()) {
+                quantitiesBySkuNumber.forEach((skuNumber, quantity) -> {
+                    Product product = products.get(skuNumber);
+                    product.setInventoryCount(product.getInventoryCount() - quantity);
+                });
+            }
+            return insufficientSkuNumbers;
+        });
+        methods.put("findProductResponsesByProductCategoryName", args -> products.tailMap((String) args[1], false)
+                .values()
+                .stream()
+                .filter(product -> product.getProductCategory().getProductCategoryName().equals(args[0]))
+                .limit(((Pageable) args[2]).getPageSize())
+                .map(InMemoryRepositories::productResponse)
+                .collect(Collectors.toList()));
+        methods.put("findProductResponsesBySkuNumbers", args -> skuNumbers(args[0])
+                .stream()
+                .map(products::get)
+                .filter(product -> product != null)
+                .map(InMemoryRepositories::productResponse)
+                .collect(Collectors.toList()));
+        return repository(ProductRepository.class, methods);
+    }
+
+    CartRepository cartRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findByCartName", args -> carts.get((String) args[0]));
+        methods.put("existsById", args -> carts.containsKey((String) args[0]));
+        methods.put("save", args -> {
+            Cart cart = (Cart) args[0];
+            if (cart.getVersion() == null) {
+                cart.setVersion(0L);
+            }
+            carts.put(cart.getCartName(), cart);
+            return cart;
+        });
+        methods.put("deleteByCartName", args -> carts.remove((String) args[0]) == null ? 0 : 1);
+        methods.put("touch", args -> {
+            Cart cart = carts.get((String) args[0]);
+            if (cart == null || (args[1] != null && !args[1].equals(cart.getVersion()))) {
+                return null;
+            }
+            cart.setLastTouchedDate(LocalDateTime.now());
+            cart.setVersion(cart.getVersion() + 1);
+            return cart.getVersion();
+        });
+        methods.put("findVersionByCartName", args -> {
+            Cart cart = carts.get((String) args[0]);
+            return cart == null ? null : cart.getVersion();
+        });
+        methods.put("findCartSummaryByCartName", args -> {
+            String cartName = (String) args[0];
+            if (!carts.containsKey(cartName)) {
+                return null;
+            }
+            List<Item> cartItems = itemsOfCart(cartName);
+            return CartSummaryResponse
+                    .builder()
+                    .cartName(cartName)
+                    .lineCount((long) cartItems.size())
+                    .unitCount(cartItems.isEmpty() ? null : cartItems.stream().mapToLong(Item::getQuantity).sum())
+                    .subtotal(cartItems.isEmpty() ? null : cartItems
+                            .stream()
+                            .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                            .reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .build();
+        });
+        return repository(CartRepository.class, methods);
+    }
+
+    ItemRepository itemRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("save", args -> {
+            Item item = (Item) args[0];
+            if (item.getItemId() == null) {
+                item.setItemId(nextItemId++);
+            }
+            items.put(item.getItemId(), item);
+            return item;
+        });
+        methods.put("delete", args -> items.remove(((Item) args[0]).getItemId()));
+        methods.put("findByCartName", args -> itemsOfCart((String) args[0]));
+        methods.put("findByCartNameAndSkuNumber", args -> itemsOfCart((String) args[0])
+                .stream()
+                .filter(item -> item.getProduct().getSkuNumber().equals(args[1]))
+                .limit(((Pageable) args[2]).getPageSize())
+                .collect(Collectors.toList()));
+        methods.put("findByCartNameAndSkuNumberIn", args -> itemsOfCart((String) args[0])
+                .stream()
+                .filter(item -> ((Collection<?>) args[1]).contains(item.getProduct().getSkuNumber()))
+                .collect(Collectors.toList()));
+        methods.put("findItemResponsesByCartName", args -> itemsOfCart((String) args[0])
+                .stream()
+                .map(item -> ItemResponse
+                        .builder()
+                        .quantity(item.getQuantity())
+                        .status(ItemStatus.getItemStatus(item.getStatus()))
+                        .cartName(item.getCart().getCartName())
+                        .skuNumber(item.getProduct().getSkuNumber())
+                        .price(item.getProduct().getPrice())
+                        .cartVersion(carts.get(item.getCart().getCartName()).getVersion())
+                        .build())
+                .collect(Collectors.toList()));
+        methods.put("deleteByCartName", args -> {
+            List<Item> cartItems = itemsOfCart((String) args[0]);
+            cartItems.forEach(item -> items.remove(item.getItemId()));
+            return cartItems.size();
+        });
+        methods.put("upsertItems", args -> {
+            for (Object upserted : (List<?>) args[0]) {
+                Item item = (Item) upserted;
+                Item existingItem = itemsOfCart(item.getCart().getCartName())
+                        .stream()
+                        .filter(cartItem -> cartItem.getProduct().getSkuNumber().equals(item.getProduct().getSkuNumber()))
+                        .findFirst()
+                        .orElse(null);
+                if (existingItem == null) {
+                    item.setItemId(nextItemId++);
+                    items.put(item.getItemId(), item);
+                } else {
+                    existingItem.setQuantity(existingItem.getQuantity() + item.getQuantity());
+                }
+            }
+            return null;
+        });
+        methods.put("updateItemQuantities", args -> {
+            ((Map<?, ?>) args[0]).forEach((itemId, quantity) -> items.get(itemId).setQuantity((Integer) quantity));
+            return null;
+        });
+        methods.put("deleteItems", args -> {
+            ((Collection<?>) args[0]).forEach(items::remove);
+            return null;
+        });
+        return repository(ItemRepository.class, methods);
+    }
+
+    private List<Item> itemsOfCart(String cartName) {
+        return items.values()
+                .stream()
+                .filter(item -> item.getCart().getCartName().equals(cartName))
+                .collect(Collectors.toList());
+    }
+
+    private ProductCategoryResponse productCategoryResponse(ProductCategory productCategory) {
+        long productCount = products.values()
+                .stream()
+                .filter(product -> product.getProductCategory().getProductCategoryName()
+                        .equals(productCategory.getProductCategoryName()))
+                .count();
+        return new ProductCategoryResponse(productCategory.getProductCategoryName(), productCategory.getDescription(), productCount);
+    }
+
+    private static ProductResponse productResponse(Product product) {
+        return ProductResponse
+                .builder()
+                .skuNumber(product.getSkuNumber())
+                .productName(product.getProductName())
+                .description(product.getDescription())
+                .inventoryCount(product.getInventoryCount())
+                .price(product.getPrice())
+                .build();
+    }
+
+    private static InventoryCount inventoryCount(Product product) {
+        String skuNumber = product.getSkuNumber();
+        Integer inventoryCount = product.getInventoryCount();
+        return new InventoryCount() {
+            @Override
+            public String getSkuNumber() {
+                return skuNumber;
+            }
+
+            @Override
+            public Integer getInventoryCount() {
+                return inventoryCount;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<String> skuNumbers(Object skuNumbers) {
+        return (Collection<String>) skuNumbers;
+    }
+
+    private static <T> T repository(Class<T> repositoryType, Map<String, Function<Object[], Object>> methods) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return "InMemory" + repositoryType.getSimpleName();
+                        }
+                    }
+                    Function<Object[], Object> handler = methods.get(method.getName());
+                    if (handler == null) {
+                        throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName()
+                                + " has no in-memory stand-in");
+                    }
+                    return handler.apply(args == null ? new Object[0] : args);
+                }));
+    }
+}
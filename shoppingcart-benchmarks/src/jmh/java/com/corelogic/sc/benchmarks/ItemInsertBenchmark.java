@@ -0,0 +1,141 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.entities.Cart;
+import com.corelogic.sc.entities.Item;
+import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.requests.AddCartRequest;
+import com.corelogic.sc.responses.ItemStatus;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk item insert cost on the embedded database, one fresh cart of {@code itemCount} lines per invocation.
+ * {@code ROW_BY_ROW} is what an IDENTITY id forces: one INSERT ... RETURNING round trip per item. {@code JPA_BATCHED}
+ * persists entities with ids drawn from the pooled item_id_seq, so Hibernate batches the inserts and pgjdbc rewrites
+ * each batch into multi-row INSERTs. {@code JDBC_BATCHED} is the item repository's batched upsert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemInsertBenchmark {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO item (quantity, status, created_date, cart_name, sku_number) VALUES (?, ?, ?, ?, ?)";
+
+    public enum InsertStrategy {
+        ROW_BY_ROW,
+        JPA_BATCHED,
+        JDBC_BATCHED
+    }
+
+    @Param({"ROW_BY_ROW", "JPA_BATCHED", "JDBC_BATCHED"})
+    public InsertStrategy insertStrategy;
+
+    @Param({"10", "100", "1000"})
+    public int itemCount;
+
+    private BenchmarkServices services;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int cartCount;
+
+    private String cartName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = BenchmarkServices.create(Backend.EMBEDDED_DATABASE);
+        services.seedCatalog(itemCount);
+        transactionTemplate = new TransactionTemplate(services.bean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Invocation)
+    public void createCart() {
+        cartName = "InsertCart" + cartCount++;
+        services.cartService().createCart(AddCartRequest.builder().cartName(cartName).description(cartName).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        services.close();
+    }
+
+    @Benchmark
+    public void insertItems() {
+        transactionTemplate.execute(status -> {
+            switch (insertStrategy) {
+                case ROW_BY_ROW:
+                    insertRowByRow();
+                    break;
+                case JPA_BATCHED:
+                    services.bean(ItemRepository.class).saveAll(items(true));
+                    break;
+                default:
+                    services.bean(ItemRepository.class).upsertItems(items(false));
+            }
+            return null;
+        });
+    }
+
+    private void insertRowByRow() {
+        JdbcTemplate jdbcTemplate = services.bean(JdbcTemplate.class);
+        Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+        for (int index = 0; index < itemCount; index++) {
+            String skuNumber = BenchmarkServices.skuNumber(index);
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, new String[]{"item_id"});
+                statement.setInt(1, 1);
+                statement.setString(2, ItemStatus.ITEM_ACTIVE.name());
+                statement.setTimestamp(3, createdDate);
+                statement.setString(4, cartName);
+                statement.setString(5, skuNumber);
+                return statement;
+            }, new GeneratedKeyHolder());
+        }
+    }
+
+    // JPA needs managed references to the cart and products; JDBC only reads their keys
+    private List<Item> items(boolean managedReferences) {
+        CartRepository cartRepository = services.bean(CartRepository.class);
+        ProductRepository productRepository = services.bean(ProductRepository.class);
+        Cart cart = managedReferences ? cartRepository.getOne(cartName) : Cart.builder().cartName(cartName).build();
+        LocalDateTime createdDate = LocalDateTime.now();
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int index = 0; index < itemCount; index++) {
+            String skuNumber = BenchmarkServices.skuNumber(index);
+            items.add(Item
+                    .builder()
+                    .cart(cart)
+                    .product(managedReferences
+                            ? productRepository.getOne(skuNumber)
+                            : Product.builder().skuNumber(skuNumber).build())
+                    .quantity(1)
+                    .status(ItemStatus.ITEM_ACTIVE.name())
+                    .createdDate(createdDate)
+                    .build());
+        }
+        return items;
+    }
+}
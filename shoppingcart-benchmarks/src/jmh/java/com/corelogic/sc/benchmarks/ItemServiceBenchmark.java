@@ -0,0 +1,88 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.RemoveItemFromCartRequest;
+import com.corelogic.sc.responses.ItemResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemServiceBenchmark {
+
+    private static final String CART_NAME = "BenchmarkCart";
+
+    @Param({"IN_MEMORY", "EMBEDDED_DATABASE"})
+    public Backend backend;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private BenchmarkServices services;
+
+    private String reservedSkuNumber;
+
+    private int nextSkuIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = BenchmarkServices.create(backend);
+        services.seedCatalog(catalogSize);
+        services.seedCart(CART_NAME, cartSize);
+
+        // one large line, outside the cart's other sku#s, for removeItem to draw down
+        reservedSkuNumber = BenchmarkServices.skuNumber(catalogSize - 1);
+        services.itemService().addItem(AddItemRequest
+                .builder()
+                .cartName(CART_NAME)
+                .skuNumber(reservedSkuNumber)
+                .quantity(BenchmarkServices.INVENTORY_COUNT / 2)
+                .build(), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        services.close();
+    }
+
+    @Benchmark
+    public ItemResponse addItem() throws Exception {
+        nextSkuIndex = (nextSkuIndex + 1) % cartSize;
+        return services.itemService().addItem(AddItemRequest
+                .builder()
+                .cartName(CART_NAME)
+                .skuNumber(BenchmarkServices.skuNumber(nextSkuIndex))
+                .quantity(1)
+                .build(), null);
+    }
+
+    @Benchmark
+    public ItemResponse removeItem() throws Exception {
+        return services.itemService().removeItem(RemoveItemFromCartRequest
+                .builder()
+                .cartName(CART_NAME)
+                .skuNumber(reservedSkuNumber)
+                .quantity(1)
+                .build(), null);
+    }
+
+    @Benchmark
+    public List<ItemResponse> retrieveItems() throws Exception {
+        return services.itemService().retrieveItems(CART_NAME);
+    }
+}
@@ -0,0 +1,46 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.responses.ProductCategoryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductCategoryServiceBenchmark {
+
+    @Param({"IN_MEMORY", "EMBEDDED_DATABASE"})
+    public Backend backend;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkServices services;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = BenchmarkServices.create(backend);
+        services.seedCatalog(catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        services.close();
+    }
+
+    @Benchmark
+    public List<ProductCategoryResponse> getProductCategories() {
+        return services.productCategoryService().getProductCategories();
+    }
+}
@@ -0,0 +1,70 @@
+package com.corelogic.sc.benchmarks;
+
+import com.corelogic.sc.responses.ProductResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category paging at the head and in the middle of the catalog, and sku# reads that hit the product catalog cache
+ * after the first pass over {@code HOT_PRODUCTS} sku#s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int HOT_PRODUCTS = 1000;
+
+    @Param({"IN_MEMORY", "EMBEDDED_DATABASE"})
+    public Backend backend;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkServices services;
+
+    private String middleSkuNumber;
+
+    private int nextSkuIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = BenchmarkServices.create(backend);
+        services.seedCatalog(catalogSize);
+        middleSkuNumber = BenchmarkServices.skuNumber(catalogSize / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        services.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> getProductsFirstPage() {
+        return services.productService().getProducts(BenchmarkServices.PRODUCT_CATEGORY_NAME, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ProductResponse> getProductsMiddlePage() {
+        return services.productService().getProducts(BenchmarkServices.PRODUCT_CATEGORY_NAME, middleSkuNumber, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ProductResponse getProductBySkuNumber() throws Exception {
+        nextSkuIndex = (nextSkuIndex + 1) % Math.min(HOT_PRODUCTS, catalogSize);
+        return services.productService().getProductBySkuNumber(BenchmarkServices.skuNumber(nextSkuIndex));
+    }
+}
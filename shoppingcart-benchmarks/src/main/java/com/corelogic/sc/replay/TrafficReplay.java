@@ -0,0 +1,167 @@
+package com.corelogic.sc.replay;
+
+import com.corelogic.sc.capture.CapturedRequest;
+import com.corelogic.sc.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Re-drives a traffic capture against a running service and prints a latency histogram per endpoint.
+ * <p>
+ * Options: {@code --file=<capture.jsonl>} (required), {@code --target=http://localhost:9090},
+ * {@code --speed=1.0} (2.0 replays twice as fast, 0 as fast as possible) and {@code --concurrency=16} (maximum
+ * requests in flight). Requests keep their captured spacing divided by the speed; when all workers are busy the
+ * replay falls behind schedule and the report says by how much.
+ */
+public class TrafficReplay {
+
+    private final URI target;
+
+    private final double speed;
+
+    private final int concurrency;
+
+    private final HttpClient httpClient;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public TrafficReplay(URI target, double speed, int concurrency) {
+        this.target = target;
+        this.speed = speed;
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("target", "http://localhost:9090");
+        options.put("speed", "1.0");
+        options.put("concurrency", "16");
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        if (!options.containsKey("file")) {
+            System.err.println("Usage: TrafficReplay --file=<capture.jsonl> [--target=url] [--speed=1.0] [--concurrency=16]");
+            System.exit(2);
+        }
+
+        TrafficReplay trafficReplay = new TrafficReplay(URI.create(options.get("target")),
+                Double.parseDouble(options.get("speed")),
+                Integer.parseInt(options.get("concurrency")));
+        trafficReplay.replay(options.get("file"));
+        trafficReplay.report();
+    }
+
+    public void replay(String file) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Semaphore inFlight = new Semaphore(concurrency);
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            long replayStart = System.nanoTime();
+            Long firstTimestamp = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                CapturedRequest capturedRequest = objectMapper.readValue(line, CapturedRequest.class);
+                if (firstTimestamp == null) {
+                    firstTimestamp = capturedRequest.getTimestamp();
+                }
+                if (speed > 0) {
+                    long dueNanos = replayStart
+                            + (long) (TimeUnit.MILLISECONDS.toNanos(capturedRequest.getTimestamp() - firstTimestamp) / speed);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    inFlight.acquire();
+                    long lagMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueNanos);
+                    maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+                } else {
+                    inFlight.acquire();
+                }
+                executor.execute(() -> {
+                    try {
+                        send(capturedRequest);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    public void report() {
+        System.out.printf("%-55s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        new TreeMap<>(histograms).forEach((endpoint, histogram) -> System.out.printf(
+                "%-55s %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                histogram.count(),
+                errors.getOrDefault(endpoint, new LongAdder()).sum(),
+                histogram.meanMicros() / 1000,
+                histogram.percentileMicros(50) / 1000.0,
+                histogram.percentileMicros(90) / 1000.0,
+                histogram.percentileMicros(99) / 1000.0,
+                histogram.maxMicros() / 1000.0));
+        if (speed > 0) {
+            System.out.printf("Maximum lag behind the captured schedule: %d ms%n", maxLagMillis.get());
+        }
+    }
+
+    private void send(CapturedRequest capturedRequest) {
+        String endpoint = capturedRequest.getMethod() + " "
+                + (capturedRequest.getPattern() == null ? capturedRequest.getPath() : capturedRequest.getPattern());
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(target.resolve(capturedRequest.getPath()
+                        + (capturedRequest.getQuery() == null ? "" : "?" + capturedRequest.getQuery())))
+                .timeout(Duration.ofSeconds(30))
+                .method(capturedRequest.getMethod(), capturedRequest.getBody() == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(capturedRequest.getBody()));
+        if (capturedRequest.getContentType() != null) {
+            request.header("Content-Type", capturedRequest.getContentType());
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 500) {
+                errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            }
+        } catch (Exception e) {
+            errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        } finally {
+            histograms.computeIfAbsent(endpoint, key -> new LatencyHistogram()).recordNanos(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.corelogic.sc.caches;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size Bloom filter over strings. {@link #mightContain} never answers false for a key that was put, and
+ * answers true for a key that was not put with about the false positive rate it was sized for. Puts and reads are
+ * lock free and may run concurrently.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final long capacity;
+
+    public BloomFilter(long capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        long optimalBitCount = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray((int) Math.max(1, (optimalBitCount + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * LN2));
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        long step = mix(hash) | 1;
+        for (int index = 0; index < hashCount; index++) {
+            setBit(Math.floorMod(hash + index * step, bitCount));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long step = mix(hash) | 1;
+        for (int index = 0; index < hashCount; index++) {
+            long bit = Math.floorMod(hash + index * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current = words.get(word);
+        while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+            current = words.get(word);
+        }
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with a 64-bit mix so that similar sku#s spread over the whole filter
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,118 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Size bounded, least-recently-used map with hit, miss and eviction counters. Entries also expire a fixed time after
+ * they were put, which bounds how stale an entry can get when the data changes without this cache being told, e.g.
+ * through another node. All operations lock the cache, which is cheap next to the database round trip a hit saves.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final LinkedHashMap<K, CachedValue<V>> entries;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long expirations;
+
+    /**
+     * A cache whose entries only leave through eviction or invalidation.
+     */
+    public BoundedCache(String name, int capacity) {
+        this(name, capacity, 0, Clock.systemUTC());
+    }
+
+    /**
+     * A cache whose entries expire {@code ttlMillis} after they were put; 0 or less never expires them.
+     */
+    public BoundedCache(String name, int capacity, long ttlMillis, Clock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache " + name + " needs a capacity of at least 1");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > BoundedCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        CachedValue<V> entry = entries.get(key);
+        if (entry != null && ttlMillis > 0 && clock.millis() >= entry.expiresAtMillis) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CachedValue<>(value, ttlMillis > 0 ? clock.millis() + ttlMillis : Long.MAX_VALUE));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> keyPredicate) {
+        entries.keySet().removeIf(keyPredicate);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized CacheStatisticsResponse statistics() {
+        return CacheStatisticsResponse
+                .builder()
+                .name(name)
+                .size(entries.size())
+                .capacity(capacity)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .expirations(expirations)
+                .build();
+    }
+
+    private static class CachedValue<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private CachedValue(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.KnownKeysStatisticsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filters over every sku# and cart name, so lookups of keys that were never created are answered without a
+ * query. Until the first rebuild every key might exist. Deleted keys stay in the filter until the next rebuild,
+ * which only costs a query; created keys must never be missing, so they are put right away and once more after
+ * the creating transaction commits, which also reaches a filter that is being rebuilt at that moment.
+ * <p>
+ * The filter only learns about keys created through this node. A product or cart created on another node, by
+ * db-utilities or in SQL is missing until the next rebuild, and lookups of it are answered as not found. It is
+ * therefore only safe when this node is the only writer, and is off unless {@code known.keys.enabled} is set.
+ */
+@Component
+public class KnownKeysFilter {
+
+    private final KnownKeys skuNumbers;
+
+    private final KnownKeys cartNames;
+
+    @Autowired
+    public KnownKeysFilter(@Value("${known.keys.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${known.keys.minimum-capacity:10000}") long minimumCapacity) {
+        this.skuNumbers = new KnownKeys("skuNumbers", falsePositiveRate, minimumCapacity);
+        this.cartNames = new KnownKeys("cartNames", falsePositiveRate, minimumCapacity);
+    }
+
+    public boolean mightContainSkuNumber(String skuNumber) {
+        return skuNumbers.mightContain(skuNumber);
+    }
+
+    public void putSkuNumber(String skuNumber) {
+        skuNumbers.putAndPutAfterCommit(skuNumber);
+    }
+
+    public boolean mightContainCartName(String cartName) {
+        return cartNames.mightContain(cartName);
+    }
+
+    public void putCartName(String cartName) {
+        cartNames.putAndPutAfterCommit(cartName);
+    }
+
+    public KnownKeys skuNumbers() {
+        return skuNumbers;
+    }
+
+    public KnownKeys cartNames() {
+        return cartNames;
+    }
+
+    public List<KnownKeysStatisticsResponse> statistics() {
+        return Arrays.asList(skuNumbers.statistics(), cartNames.statistics());
+    }
+
+    /**
+     * One key space. A rebuild fills a new filter, sized for the current key count with room to grow, while the
+     * old one keeps answering; keys put meanwhile go into both.
+     */
+    public static class KnownKeys {
+
+        private final String name;
+
+        private final double falsePositiveRate;
+
+        private final long minimumCapacity;
+
+        private final LongAdder definiteMisses = new LongAdder();
+
+        private volatile BloomFilter filter;
+
+        private volatile BloomFilter rebuiltFilter;
+
+        private KnownKeys(String name, double falsePositiveRate, long minimumCapacity) {
+            this.name = name;
+            this.falsePositiveRate = falsePositiveRate;
+            this.minimumCapacity = minimumCapacity;
+        }
+
+        public synchronized void startRebuild(long keyCount) {
+            rebuiltFilter = new BloomFilter(Math.max(minimumCapacity, keyCount * 2), falsePositiveRate);
+        }
+
+        public void putRebuilt(String key) {
+            rebuiltFilter.put(key);
+        }
+
+        public synchronized void completeRebuild() {
+            filter = rebuiltFilter;
+            rebuiltFilter = null;
+        }
+
+        public synchronized void abortRebuild() {
+            rebuiltFilter = null;
+        }
+
+        private boolean mightContain(String key) {
+            BloomFilter current = filter;
+            if (current == null || current.mightContain(key)) {
+                return true;
+            }
+            definiteMisses.increment();
+            return false;
+        }
+
+        private void putAndPutAfterCommit(String key) {
+            put(key);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(key);
+                    }
+                });
+            }
+        }
+
+        private void put(String key) {
+            // the rebuilt filter first: if the rebuild completes in between, it is the current filter by now
+            BloomFilter rebuilding = rebuiltFilter;
+            BloomFilter current = filter;
+            if (rebuilding != null) {
+                rebuilding.put(key);
+            }
+            if (current != null) {
+                current.put(key);
+            }
+        }
+
+        private KnownKeysStatisticsResponse statistics() {
+            BloomFilter current = filter;
+            return KnownKeysStatisticsResponse
+                    .builder()
+                    .name(name)
+                    .capacity(current == null ? null : current.getCapacity())
+                    .falsePositiveRate(falsePositiveRate)
+                    .definiteMisses(definiteMisses.sum())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+import com.corelogic.sc.responses.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the rarely changing product attributes (name, description, price) by sku# and by category page. Inventory
+ * counts are never cached: entries are stored with a null inventoryCount and callers merge in the live value.
+ * <p>
+ * The cache is per node and only sees the products added through it, so entries expire after a TTL: a product added
+ * on another node, or directly in the database, shows up in this node's pages within that time. A local add
+ * invalidates right away and once more after its transaction commits, in case a concurrent read cached the page as it
+ * was before the commit.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final BoundedCache<String, ProductResponse> productsBySkuNumber;
+
+    private final BoundedCache<CategoryPageKey, List<ProductResponse>> productsByCategoryPage;
+
+    @Autowired
+    public ProductCatalogCache(@Value("${product.catalog.cache.product-capacity:10000}") int productCapacity,
+                               @Value("${product.catalog.cache.category-page-capacity:1000}") int categoryPageCapacity,
+                               @Value("${product.catalog.cache.ttl-millis:60000}") long ttlMillis) {
+        this.productsBySkuNumber = new BoundedCache<>("productsBySkuNumber", productCapacity, ttlMillis, Clock.systemUTC());
+        this.productsByCategoryPage = new BoundedCache<>("productsByCategoryPage", categoryPageCapacity, ttlMillis,
+                Clock.systemUTC());
+    }
+
+    public ProductResponse getProduct(String skuNumber) {
+        return productsBySkuNumber.get(skuNumber);
+    }
+
+    public void putProduct(ProductResponse productResponse) {
+        productsBySkuNumber.put(productResponse.getSkuNumber(), withoutInventoryCount(productResponse));
+    }
+
+    public List<ProductResponse> getCategoryPage(String productCategoryName, String after, int limit) {
+        return productsByCategoryPage.get(new CategoryPageKey(productCategoryName, after, limit));
+    }
+
+    public void putCategoryPage(String productCategoryName, String after, int limit, List<ProductResponse> productResponses) {
+        productsByCategoryPage.put(new CategoryPageKey(productCategoryName, after, limit),
+                Collections.unmodifiableList(productResponses
+                        .stream()
+                        .map(ProductCatalogCache::withoutInventoryCount)
+                        .collect(Collectors.toList())));
+    }
+
+    public void invalidateProduct(String skuNumber, String productCategoryName) {
+        invalidate(skuNumber, productCategoryName);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(skuNumber, productCategoryName);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        productsBySkuNumber.invalidateAll();
+        productsByCategoryPage.invalidateAll();
+    }
+
+    public List<CacheStatisticsResponse> statistics() {
+        return Arrays.asList(productsBySkuNumber.statistics(), productsByCategoryPage.statistics());
+    }
+
+    private void invalidate(String skuNumber, String productCategoryName) {
+        productsBySkuNumber.invalidate(skuNumber);
+        productsByCategoryPage.invalidateIf(key -> key.getProductCategoryName().equals(productCategoryName));
+    }
+
+    private static ProductResponse withoutInventoryCount(ProductResponse productResponse) {
+        return ProductResponse
+                .builder()
+                .skuNumber(productResponse.getSkuNumber())
+                .productName(productResponse.getProductName())
+                .description(productResponse.getDescription())
+                .price(productResponse.getPrice())
+                .build();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class CategoryPageKey {
+        private String productCategoryName;
+        private String after;
+        private int limit;
+    }
+}
@@ -0,0 +1,42 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.CartResponse;
+import com.corelogic.sc.responses.ProductResponse;
+import com.corelogic.sc.responses.SingleFlightStatisticsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Coalesces the hot reads that clients hammer on one key, a product during a drop or a polled cart, so the
+ * database sees one lookup per distinct key in flight rather than one per request. A missing product or cart is
+ * shared as a null result.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final SingleFlight<String, ProductResponse> productsBySkuNumber;
+
+    private final SingleFlight<String, CartResponse> cartsByCartName;
+
+    @Autowired
+    public ReadCoalescer(@Value("${read.coalescing.deadline-millis:1000}") long deadlineMillis) {
+        this.productsBySkuNumber = new SingleFlight<>("productsBySkuNumber", deadlineMillis);
+        this.cartsByCartName = new SingleFlight<>("cartsByCartName", deadlineMillis);
+    }
+
+    public SingleFlight<String, ProductResponse> products() {
+        return productsBySkuNumber;
+    }
+
+    public SingleFlight<String, CartResponse> carts() {
+        return cartsByCartName;
+    }
+
+    public List<SingleFlightStatisticsResponse> statistics() {
+        return Arrays.asList(productsBySkuNumber.statistics(), cartsByCartName.statistics());
+    }
+}
@@ -0,0 +1,98 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts and reports on the Hibernate second-level cache. Inventory counts are written with plain JDBC, which
+ * Hibernate does not see, so those writes evict the products they touched: once right away and once more after the
+ * transaction completes, in case another session cached the row as it was before the commit.
+ */
+@Component
+public class SecondLevelCache {
+
+    public static final String PRODUCT_REGION = "catalog.product";
+
+    public static final String PRODUCT_CATEGORY_REGION = "catalog.productCategory";
+
+    public static final String PRODUCT_CATEGORY_PRODUCTS_REGION = "catalog.productCategoryProducts";
+
+    public static final String QUERY_REGION = "catalog.queries";
+
+    private static final List<String> REGIONS = Arrays.asList(
+            PRODUCT_REGION, PRODUCT_CATEGORY_REGION, PRODUCT_CATEGORY_PRODUCTS_REGION, QUERY_REGION);
+
+    private final Cache cache;
+
+    private final Statistics statistics;
+
+    @Autowired
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+    public void evictProducts(Collection<String> skuNumbers) {
+        if (skuNumbers.isEmpty()) {
+            return;
+        }
+        List<String> evictedSkuNumbers = new ArrayList<>(skuNumbers);
+        evict(evictedSkuNumbers);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(evictedSkuNumbers);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every entity, collection and query result. Needed after the tables were changed outside this service,
+     * e.g. by a db-utilities reseed.
+     */
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+
+    public List<CacheStatisticsResponse> statistics() {
+        List<CacheStatisticsResponse> cacheStatisticsResponses = new ArrayList<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            long elementCount = regionStatistics.getElementCountInMemory();
+            cacheStatisticsResponses.add(CacheStatisticsResponse
+                    .builder()
+                    .name(region)
+                    .size(elementCount < 0 ? null : (int) elementCount)
+                    .hits(regionStatistics.getHitCount())
+                    .misses(regionStatistics.getMissCount())
+                    .build());
+        }
+        return cacheStatisticsResponses;
+    }
+
+    private void evict(List<String> skuNumbers) {
+        for (String skuNumber : skuNumbers) {
+            cache.evictEntityData(Product.class, skuNumber);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.SingleFlightStatisticsResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent lookups of the same key: the first caller runs the lookup, callers arriving while it is in
+ * flight wait for its result (or exception) instead of running their own. Nothing is kept once the lookup finishes,
+ * so a result is never older than the lookup that was in flight when the caller arrived. A caller that waited
+ * longer than the deadline takes over with a new lookup that later callers join, so a stalled lookup delays each
+ * caller by at most one deadline.
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+
+    private final long deadlineMillis;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder deadlineExpirations = new LongAdder();
+
+    public SingleFlight(String name, long deadlineMillis) {
+        this.name = name;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public V execute(K key, Supplier<V> lookup) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if (current == null) {
+            return lead(key, flight, lookup);
+        }
+
+        coalesced.increment();
+        while (true) {
+            try {
+                return current.get(deadlineMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + name + " lookup of " + key, e);
+            } catch (TimeoutException e) {
+                deadlineExpirations.increment();
+                if (inFlight.replace(key, current, flight)) {
+                    return lead(key, flight, lookup);
+                }
+                // another caller took over, or the lookup just finished: join whatever is in flight now
+                current = inFlight.putIfAbsent(key, flight);
+                if (current == null) {
+                    return lead(key, flight, lookup);
+                }
+            }
+        }
+    }
+
+    public SingleFlightStatisticsResponse statistics() {
+        return SingleFlightStatisticsResponse
+                .builder()
+                .name(name)
+                .deadlineMillis(deadlineMillis)
+                .inFlight(inFlight.size())
+                .lookups(lookups.sum())
+                .coalesced(coalesced.sum())
+                .deadlineExpirations(deadlineExpirations.sum())
+                .build();
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> lookup) {
+        lookups.increment();
+        try {
+            V value = lookup.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,31 @@
+package com.corelogic.sc.capture;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CapturedRequest {
+
+    private Long timestamp;
+
+    private String method;
+
+    private String path;
+
+    private String pattern;
+
+    private String query;
+
+    private String contentType;
+
+    private String body;
+
+    private Integer status;
+
+    private Long durationMicros;
+}
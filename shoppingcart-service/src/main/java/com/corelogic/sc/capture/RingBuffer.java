@@ -0,0 +1,67 @@
+package com.corelogic.sc.capture;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer ring buffer. Every slot has a sequence number: producers claim a
+ * slot with one CAS on the tail and publish it by advancing the slot's sequence, the consumer releases it the same
+ * way. {@link #offer} never blocks; when the buffer is full it returns false and the caller drops the element.
+ */
+public class RingBuffer<T> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<T> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private long head;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest element, or returns null when the buffer is empty. Must only be called from one thread.
+     */
+    public T poll() {
+        int slot = (int) (head & mask);
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        T element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return element;
+    }
+}
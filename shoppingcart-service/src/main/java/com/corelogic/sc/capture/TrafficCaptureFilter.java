@@ -0,0 +1,54 @@
+package com.corelogic.sc.capture;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records every request it sees, with its body, status and latency, for later replay. The only work on the request
+ * thread is building the record and one non-blocking ring buffer offer.
+ */
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private final TrafficCaptureWriter trafficCaptureWriter;
+
+    private final int maxBodyBytes;
+
+    public TrafficCaptureFilter(TrafficCaptureWriter trafficCaptureWriter, int maxBodyBytes) {
+        this.trafficCaptureWriter = trafficCaptureWriter;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+        long timestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(cachingRequest, response);
+        } finally {
+            byte[] body = cachingRequest.getContentAsByteArray();
+            Object pattern = cachingRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            trafficCaptureWriter.capture(CapturedRequest
+                    .builder()
+                    .timestamp(timestamp)
+                    .method(request.getMethod())
+                    .path(request.getRequestURI())
+                    .pattern(pattern == null ? null : pattern.toString())
+                    .query(request.getQueryString())
+                    .contentType(request.getContentType())
+                    .body(body.length == 0 ? null : new String(body, StandardCharsets.UTF_8))
+                    .status(response.getStatus())
+                    .durationMicros((System.nanoTime() - start) / 1000)
+                    .build());
+        }
+    }
+}
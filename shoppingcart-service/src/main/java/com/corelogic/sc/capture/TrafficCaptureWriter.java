@@ -0,0 +1,99 @@
+package com.corelogic.sc.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends captured requests to a JSONL file from a single background thread. Request threads only hand records to
+ * the ring buffer; when the writer falls behind and the buffer is full, records are dropped and counted rather than
+ * slowing requests down.
+ */
+public class TrafficCaptureWriter implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+
+    private final RingBuffer<CapturedRequest> ringBuffer;
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    public TrafficCaptureWriter(Path file, int bufferSize, ObjectMapper objectMapper) {
+        this.ringBuffer = new RingBuffer<>(bufferSize);
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.thread = new Thread(this, "traffic-capture-writer");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void capture(CapturedRequest capturedRequest) {
+        if (!ringBuffer.offer(capturedRequest)) {
+            dropped.increment();
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void run() {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            boolean unflushed = false;
+            while (true) {
+                CapturedRequest capturedRequest = ringBuffer.poll();
+                if (capturedRequest == null) {
+                    if (unflushed) {
+                        writer.flush();
+                        unflushed = false;
+                    }
+                    if (!running) {
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
+                }
+                writer.write(objectMapper.writeValueAsString(capturedRequest));
+                writer.newLine();
+                written.increment();
+                unflushed = true;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Traffic capture to {} stopped", file, e);
+        }
+    }
+
+    public void close() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        LOGGER.info("Traffic capture wrote {} requests to {}, dropped {}", written(), file, dropped());
+    }
+}
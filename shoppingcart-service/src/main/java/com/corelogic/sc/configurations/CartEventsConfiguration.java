@@ -0,0 +1,33 @@
+package com.corelogic.sc.configurations;
+
+import com.corelogic.sc.events.CartEventHeartbeat;
+import com.corelogic.sc.events.CartEventStreams;
+import com.corelogic.sc.respositories.CartRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class CartEventsConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CartEventStreams cartEventStreams(CartRepository cartRepository,
+                                             ObjectMapper objectMapper,
+                                             @Value("${cart.events.timeout-millis:1800000}") long timeoutMillis,
+                                             @Value("${cart.events.replay-size:64}") int replaySize,
+                                             @Value("${cart.events.retention-millis:60000}") long retentionMillis,
+                                             @Value("${cart.events.dispatch-threads:4}") int dispatchThreads,
+                                             @Value("${cart.events.writer-threads:16}") int writerThreads,
+                                             @Value("${cart.events.subscriber-queue-size:256}") int subscriberQueueSize) {
+        return new CartEventStreams(cartRepository, objectMapper, timeoutMillis, replaySize, retentionMillis, dispatchThreads,
+                writerThreads, subscriberQueueSize);
+    }
+
+    @Bean
+    public CartEventHeartbeat cartEventHeartbeat(CartEventStreams cartEventStreams) {
+        return new CartEventHeartbeat(cartEventStreams);
+    }
+}
@@ -0,0 +1,21 @@
+package com.corelogic.sc.configurations;
+
+import com.corelogic.sc.services.CartExpiryService;
+import com.corelogic.sc.services.CartExpirySweeper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "cart.expiry.enabled", havingValue = "true")
+public class CartExpiryConfiguration {
+
+    @Bean
+    public CartExpirySweeper cartExpirySweeper(CartExpiryService cartExpiryService,
+                                               @Value("${cart.expiry.max-chunks-per-sweep:20}") int maxChunksPerSweep) {
+        return new CartExpirySweeper(cartExpiryService, maxChunksPerSweep);
+    }
+}
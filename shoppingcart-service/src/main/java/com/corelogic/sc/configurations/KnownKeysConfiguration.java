@@ -0,0 +1,19 @@
+package com.corelogic.sc.configurations;
+
+import com.corelogic.sc.services.KnownKeysRebuilder;
+import com.corelogic.sc.services.KnownKeysService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "known.keys.enabled", havingValue = "true")
+public class KnownKeysConfiguration {
+
+    @Bean
+    public KnownKeysRebuilder knownKeysRebuilder(KnownKeysService knownKeysService) {
+        return new KnownKeysRebuilder(knownKeysService);
+    }
+}
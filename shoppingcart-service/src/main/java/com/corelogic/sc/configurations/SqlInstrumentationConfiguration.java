@@ -0,0 +1,35 @@
+package com.corelogic.sc.configurations;
+
+import com.corelogic.sc.metrics.DataSourceInstrumentationPostProcessor;
+import com.corelogic.sc.metrics.QueryBudgetFilter;
+import com.corelogic.sc.metrics.QueryShapeMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfiguration {
+
+    // static, so the post processor is registered before the DataSource bean is created
+    @Bean
+    public static DataSourceInstrumentationPostProcessor dataSourceInstrumentationPostProcessor(
+            QueryShapeMetrics queryShapeMetrics,
+            @Value("${sql.slow-query-millis:100}") long slowQueryMillis) {
+        return new DataSourceInstrumentationPostProcessor(queryShapeMetrics, slowQueryMillis);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+            @Value("${sql.budget.statements:20}") long statementBudget,
+            @Value("${sql.budget.database-millis:250}") long databaseMillisBudget) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(statementBudget, databaseMillisBudget));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
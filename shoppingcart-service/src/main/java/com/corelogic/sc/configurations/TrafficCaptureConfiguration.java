@@ -0,0 +1,38 @@
+package com.corelogic.sc.configurations;
+
+import com.corelogic.sc.capture.TrafficCaptureFilter;
+import com.corelogic.sc.capture.TrafficCaptureWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(name = "traffic.capture.enabled", havingValue = "true")
+public class TrafficCaptureConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public TrafficCaptureWriter trafficCaptureWriter(@Value("${traffic.capture.file}") String file,
+                                                     @Value("${traffic.capture.buffer-size:65536}") int bufferSize,
+                                                     ObjectMapper objectMapper) {
+        TrafficCaptureWriter trafficCaptureWriter = new TrafficCaptureWriter(Paths.get(file), bufferSize, objectMapper);
+        trafficCaptureWriter.start();
+        return trafficCaptureWriter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<TrafficCaptureFilter> trafficCaptureFilter(
+            TrafficCaptureWriter trafficCaptureWriter,
+            @Value("${traffic.capture.max-body-bytes:65536}") int maxBodyBytes) {
+        FilterRegistrationBean<TrafficCaptureFilter> registration =
+                new FilterRegistrationBean<>(new TrafficCaptureFilter(trafficCaptureWriter, maxBodyBytes));
+        registration.addUrlPatterns("/api/carts/*", "/api/items/*", "/api/products/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,47 @@
+package com.corelogic.sc.controllers;
+
+import java.util.Locale;
+
+/**
+ * Reads the codings of an Accept-Encoding header with their q-values, as RFC 7231 has them: a coding listed with
+ * q=0 is refused, and "*" stands for every coding that is not listed.
+ */
+final class AcceptEncodings {
+
+    private AcceptEncodings() {
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parameters);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        return gzipQuality != null ? gzipQuality > 0 : anyQuality != null && anyQuality > 0;
+    }
+
+    // a q-value that does not parse is taken as a refusal
+    private static double quality(String[] parameters) {
+        for (int index = 1; index < parameters.length; index++) {
+            String parameter = parameters[index].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
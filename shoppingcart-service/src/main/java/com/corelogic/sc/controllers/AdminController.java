@@ -0,0 +1,111 @@
+package com.corelogic.sc.controllers;
+
+import com.corelogic.sc.caches.ProductCatalogCache;
+import com.corelogic.sc.caches.ReadCoalescer;
+import com.corelogic.sc.caches.SecondLevelCache;
+import com.corelogic.sc.events.CartEventStreams;
+import com.corelogic.sc.metrics.MethodMetrics;
+import com.corelogic.sc.metrics.QueryShapeMetrics;
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+import com.corelogic.sc.responses.CartEventStatisticsResponse;
+import com.corelogic.sc.responses.CartExpiryStatisticsResponse;
+import com.corelogic.sc.responses.KnownKeysStatisticsResponse;
+import com.corelogic.sc.responses.MethodMetricsResponse;
+import com.corelogic.sc.responses.QueryShapeMetricsResponse;
+import com.corelogic.sc.responses.SingleFlightStatisticsResponse;
+import com.corelogic.sc.services.CartExpiryService;
+import com.corelogic.sc.services.KnownKeysService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private ProductCatalogCache productCatalogCache;
+
+    private SecondLevelCache secondLevelCache;
+
+    private ReadCoalescer readCoalescer;
+
+    private MethodMetrics methodMetrics;
+
+    private QueryShapeMetrics queryShapeMetrics;
+
+    private CartExpiryService cartExpiryService;
+
+    private KnownKeysService knownKeysService;
+
+    private CartEventStreams cartEventStreams;
+
+    @Autowired
+    public AdminController(ProductCatalogCache productCatalogCache, SecondLevelCache secondLevelCache,
+                           ReadCoalescer readCoalescer, MethodMetrics methodMetrics,
+                           QueryShapeMetrics queryShapeMetrics, CartExpiryService cartExpiryService,
+                           KnownKeysService knownKeysService, CartEventStreams cartEventStreams) {
+        this.productCatalogCache = productCatalogCache;
+        this.secondLevelCache = secondLevelCache;
+        this.readCoalescer = readCoalescer;
+        this.methodMetrics = methodMetrics;
+        this.queryShapeMetrics = queryShapeMetrics;
+        this.cartExpiryService = cartExpiryService;
+        this.knownKeysService = knownKeysService;
+        this.cartEventStreams = cartEventStreams;
+    }
+
+    @GetMapping(value = "/caches")
+    public ResponseEntity<List<CacheStatisticsResponse>> caches() {
+        List<CacheStatisticsResponse> cacheStatisticsResponses = new ArrayList<>(productCatalogCache.statistics());
+        cacheStatisticsResponses.addAll(secondLevelCache.statistics());
+        return ResponseEntity.ok(cacheStatisticsResponses);
+    }
+
+    @DeleteMapping(value = "/caches")
+    public ResponseEntity<Void> evictCaches() {
+        productCatalogCache.invalidateAll();
+        secondLevelCache.evictAll();
+        knownKeysService.rebuild();
+        cartEventStreams.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(value = "/coalescing")
+    public ResponseEntity<List<SingleFlightStatisticsResponse>> coalescing() {
+        return ResponseEntity.ok(readCoalescer.statistics());
+    }
+
+    @GetMapping(value = "/knownKeys")
+    public ResponseEntity<List<KnownKeysStatisticsResponse>> knownKeys() {
+        return ResponseEntity.ok(knownKeysService.statistics());
+    }
+
+    @GetMapping(value = "/cartEvents")
+    public ResponseEntity<CartEventStatisticsResponse> cartEvents() {
+        return ResponseEntity.ok(cartEventStreams.statistics());
+    }
+
+    @GetMapping(value = "/metrics")
+    public ResponseEntity<List<MethodMetricsResponse>> metrics(@RequestParam(value = "reset", defaultValue = "true") boolean reset) {
+        return ResponseEntity.ok(methodMetrics.snapshot(reset));
+    }
+
+    @GetMapping(value = "/queries")
+    public ResponseEntity<List<QueryShapeMetricsResponse>> queries(@RequestParam(value = "reset", defaultValue = "true") boolean reset) {
+        return ResponseEntity.ok(queryShapeMetrics.snapshot(reset));
+    }
+
+    @GetMapping(value = "/cartExpiry")
+    public ResponseEntity<CartExpiryStatisticsResponse> cartExpiry() {
+        return ResponseEntity.ok(cartExpiryService.statistics());
+    }
+}
@@ -2,14 +2,15 @@ package com.corelogic.sc.controllers;
 
 
 import com.corelogic.sc.exceptions.CartNotFoundException;
-import com.corelogic.sc.exceptions.ItemNotFoundException;
-import com.corelogic.sc.exceptions.ProductNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.requests.AddCartRequest;
 import com.corelogic.sc.requests.DeleteCartRequest;
 import com.corelogic.sc.responses.CartExceptionResponse;
 import com.corelogic.sc.responses.CartResponse;
+import com.corelogic.sc.responses.CartSummaryResponse;
 import com.corelogic.sc.services.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -19,11 +20,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 @RequestMapping("/api/carts")
 public class CartController {
     private CartService cartService;
@@ -35,17 +37,37 @@ public class CartController {
 
     @PostMapping(value = "/cart")
     public ResponseEntity<CartResponse> cart(@RequestBody AddCartRequest addCartRequest) {
-        return ResponseEntity.ok(cartService.createCart(addCartRequest));
+        CartResponse cartResponse = cartService.createCart(addCartRequest);
+        return ResponseEntity.ok().eTag(CartETags.eTag(cartResponse.getVersion())).body(cartResponse);
     }
 
+    /**
+     * With If-None-Match only the cart's version is read, and an unchanged cart is answered with an empty 304.
+     */
     @GetMapping(value = "/cart/{cartName}")
-    public ResponseEntity<CartResponse> cart(@PathVariable("cartName") String cartName) throws CartNotFoundException {
-        return ResponseEntity.ok(cartService.findCart(cartName));
+    public ResponseEntity<CartResponse> cart(@PathVariable("cartName") String cartName,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws CartNotFoundException {
+        if (ifNoneMatch != null) {
+            long version = cartService.cartVersion(cartName);
+            if (CartETags.matches(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(CartETags.eTag(version)).build();
+            }
+        }
+        CartResponse cartResponse = cartService.findCart(cartName);
+        return ResponseEntity.ok().eTag(CartETags.eTag(cartResponse.getVersion())).body(cartResponse);
+    }
+
+    @GetMapping(value = "/cart/{cartName}/summary")
+    public ResponseEntity<CartSummaryResponse> cartSummary(@PathVariable("cartName") String cartName) throws CartNotFoundException {
+        return ResponseEntity.ok(cartService.cartSummary(cartName));
     }
 
     @DeleteMapping(value = "/cart")
-    public ResponseEntity cart(@RequestBody DeleteCartRequest deleteCartRequest) throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        cartService.deleteCart(deleteCartRequest);
+    public ResponseEntity cart(@RequestBody DeleteCartRequest deleteCartRequest,
+                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CartNotFoundException, CartVersionMismatchException {
+        cartService.deleteCart(deleteCartRequest, CartETags.expectedVersion(ifMatch));
         return new ResponseEntity(HttpStatus.OK);
     }
 
@@ -53,4 +75,9 @@ public class CartController {
     public ResponseEntity<CartExceptionResponse> cartNotFound(CartNotFoundException exception) {
         return new ResponseEntity<>(new CartExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(CartVersionMismatchException.class)
+    public ResponseEntity<CartExceptionResponse> cartVersionMismatch(CartVersionMismatchException exception) {
+        return new ResponseEntity<>(new CartExceptionResponse(exception.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -0,0 +1,54 @@
+package com.corelogic.sc.controllers;
+
+/**
+ * A cart's version is the ETag of the cart and of its items, so a client can poll either with If-None-Match and
+ * guard changes with If-Match. ETags are strong: the quoted version number.
+ */
+final class CartETags {
+
+    private CartETags() {
+    }
+
+    static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * True when an If-None-Match header is "*" or lists the version's ETag; weak comparison, as RFC 7232 asks for
+     * If-None-Match.
+     */
+    static boolean matches(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String eTag : ifNoneMatch.split(",")) {
+            String candidate = eTag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(eTag(version))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an If-Match header requires, or null without a header or for "*" (the cart only has to exist).
+     * Anything but a single strong ETag of ours can never match and maps to -1.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.corelogic.sc.controllers;
 
 
+import com.corelogic.sc.events.CartEventStreams;
 import com.corelogic.sc.exceptions.CartNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.exceptions.InsufficientProductInventoryException;
+import com.corelogic.sc.exceptions.InvalidItemQuantityException;
 import com.corelogic.sc.exceptions.ItemNotFoundException;
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.BatchItemRequest;
 import com.corelogic.sc.requests.RemoveItemFromCartRequest;
 import com.corelogic.sc.responses.ItemExceptionResponse;
 import com.corelogic.sc.responses.ItemResponse;
 import com.corelogic.sc.services.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,43 +25,110 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 @RequestMapping("/api/items")
 public class ItemController {
     private ItemService itemService;
 
+    private CartEventStreams cartEventStreams;
+
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, CartEventStreams cartEventStreams) {
         this.itemService = itemService;
+        this.cartEventStreams = cartEventStreams;
     }
 
     @PostMapping(value = "/item")
-    public ResponseEntity<ItemResponse> item(@RequestBody AddItemRequest addItemRequest)
-            throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
-        ItemResponse itemResponse = itemService.addItem(addItemRequest);
-        return ResponseEntity.ok(itemResponse);
+    public ResponseEntity<ItemResponse> item(@RequestBody AddItemRequest addItemRequest,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException,
+            InvalidItemQuantityException {
+        ItemResponse itemResponse = itemService.addItem(addItemRequest, CartETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(CartETags.eTag(itemResponse.getCartVersion())).body(itemResponse);
     }
 
     @PostMapping(value = "/cart/item")
-    public ResponseEntity<ItemResponse> item(@RequestBody RemoveItemFromCartRequest removeItemFromCartRequest) throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        return ResponseEntity.ok(itemService.removeItem(removeItemFromCartRequest));
+    public ResponseEntity<ItemResponse> item(@RequestBody RemoveItemFromCartRequest removeItemFromCartRequest,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException,
+            InvalidItemQuantityException {
+        ItemResponse itemResponse = itemService.removeItem(removeItemFromCartRequest, CartETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(CartETags.eTag(itemResponse.getCartVersion())).body(itemResponse);
+    }
+
+    /**
+     * A batch without operations leaves the cart at its version, which is still returned as the ETag.
+     */
+    @PostMapping(value = "/batch")
+    public ResponseEntity<List<ItemResponse>> items(@RequestBody BatchItemRequest batchItemRequest,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException,
+            InsufficientProductInventoryException, InvalidItemQuantityException {
+        if (batchItemRequest.getOperations() == null || batchItemRequest.getOperations().isEmpty()) {
+            long version = itemService.cartVersion(batchItemRequest.getCartName(), CartETags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(CartETags.eTag(version)).body(new ArrayList<>());
+        }
+        List<ItemResponse> itemResponses = itemService.batchItems(batchItemRequest, CartETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(CartETags.eTag(itemResponses.get(0).getCartVersion())).body(itemResponses);
     }
 
+    /**
+     * With If-None-Match only the cart's version is read, and an unchanged cart is answered with an empty 304.
+     * Otherwise the items query carries the version, so the ETag costs no extra statement unless the cart is empty.
+     */
     @GetMapping(value = "/{cartName}")
-    public ResponseEntity<List<ItemResponse>> items(@PathVariable("cartName") String cartName) throws CartNotFoundException {
+    public ResponseEntity<List<ItemResponse>> items(@PathVariable("cartName") String cartName,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws CartNotFoundException {
+        if (ifNoneMatch != null) {
+            long version = itemService.cartVersion(cartName);
+            if (CartETags.matches(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(CartETags.eTag(version)).build();
+            }
+        }
         List<ItemResponse> itemResponses = itemService.retrieveItems(cartName);
-        return ResponseEntity.ok(itemResponses);
+        long version = itemResponses.isEmpty() ? itemService.cartVersion(cartName) : itemResponses.get(0).getCartVersion();
+        return ResponseEntity.ok().eTag(CartETags.eTag(version)).body(itemResponses);
     }
 
+    /**
+     * Pushes the cart's changes instead of having clients poll its items. Event ids are cart versions: a client that
+     * fetched the items at a version subscribes with it as {@code lastEventId}, a reconnecting EventSource sends
+     * Last-Event-ID, and the changes since are replayed. A {@code resync} event means they were not kept and the items
+     * must be fetched again; events at or below the version the client holds are to be ignored.
+     */
+    @GetMapping(value = "/{cartName}/events")
+    public SseEmitter events(@PathVariable("cartName") String cartName,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                             @RequestParam(value = "lastEventId", required = false) Long lastEventId)
+            throws CartNotFoundException, IOException {
+        long version = itemService.cartVersion(cartName);
+        return cartEventStreams.subscribe(cartName, version, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    // typed, so the error can also answer an event stream request
     @ExceptionHandler(CartNotFoundException.class)
     public ResponseEntity<ItemExceptionResponse> cartNotFound(CartNotFoundException exception) {
-        return new ResponseEntity<>(new ItemExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ItemExceptionResponse(exception.getMessage()));
+    }
+
+    @ExceptionHandler(CartVersionMismatchException.class)
+    public ResponseEntity<ItemExceptionResponse> cartVersionMismatch(CartVersionMismatchException exception) {
+        return new ResponseEntity<>(new ItemExceptionResponse(exception.getMessage()), HttpStatus.PRECONDITION_FAILED);
     }
 
     @ExceptionHandler(ProductNotFoundException.class)
@@ -72,4 +145,9 @@ public class ItemController {
     public ResponseEntity<ItemExceptionResponse> itemNotFound(ItemNotFoundException exception) {
         return new ResponseEntity<>(new ItemExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(InvalidItemQuantityException.class)
+    public ResponseEntity<ItemExceptionResponse> invalidItemQuantity(InvalidItemQuantityException exception) {
+        return new ResponseEntity<>(new ItemExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
+    }
 }
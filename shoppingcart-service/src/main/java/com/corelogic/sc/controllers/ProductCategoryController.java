@@ -4,8 +4,11 @@ import com.corelogic.sc.exceptions.ProductCategoryNotFoundException;
 import com.corelogic.sc.requests.AddProductCategoryRequest;
 import com.corelogic.sc.responses.ProductCategoryExceptionResponse;
 import com.corelogic.sc.responses.ProductCategoryResponse;
+import com.corelogic.sc.services.CatalogExportService;
 import com.corelogic.sc.services.ProductCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,20 +17,32 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/api/productCatalog")
 public class ProductCategoryController {
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private ProductCategoryService productCategoryService;
 
+    private CatalogExportService catalogExportService;
+
     @Autowired
-    public ProductCategoryController(ProductCategoryService productCategoryService) {
+    public ProductCategoryController(ProductCategoryService productCategoryService, CatalogExportService catalogExportService) {
         this.productCategoryService = productCategoryService;
+        this.catalogExportService = catalogExportService;
     }
 
     @GetMapping(value = "/productCategories")
@@ -49,8 +64,50 @@ public class ProductCategoryController {
         return ResponseEntity.ok(productCategoryResponse);
     }
 
+    /**
+     * Streams the whole catalog, or the products updated since the given time, as newline delimited JSON; gzipped
+     * when the client accepts it. The rows are written while they are read, so once the first line is out an error
+     * can only cut the export short: a complete export ends with a newline.
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public void export(@RequestParam(value = "updatedSince", required = false)
+                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        export(acceptEncoding, response, outputStream -> catalogExportService.exportProducts(updatedSince, outputStream));
+    }
+
+    /**
+     * Streams the sku# and inventory count of every product, the same way as the catalog. Stock changes do not count
+     * as updates for {@code updatedSince}, so clients exporting incrementally take stock from here.
+     */
+    @GetMapping(value = "/export/inventory", produces = APPLICATION_NDJSON_VALUE)
+    public void exportInventory(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                HttpServletResponse response) throws IOException {
+        export(acceptEncoding, response, catalogExportService::exportInventoryCounts);
+    }
+
+    private static void export(String acceptEncoding, HttpServletResponse response, Export export) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (AcceptEncodings.acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(response.getOutputStream(), 8192);
+            export.writeTo(gzipOutputStream);
+            gzipOutputStream.finish();
+        } else {
+            export.writeTo(response.getOutputStream());
+        }
+        response.flushBuffer();
+    }
+
     @ExceptionHandler(ProductCategoryNotFoundException.class)
     public ResponseEntity<ProductCategoryExceptionResponse> productCategoryNotFound(ProductCategoryNotFoundException exception) {
         return new ResponseEntity<>(new ProductCategoryExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
+
+    private interface Export {
+        long writeTo(OutputStream outputStream) throws IOException;
+    }
 }
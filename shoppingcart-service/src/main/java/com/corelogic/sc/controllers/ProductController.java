@@ -2,7 +2,9 @@ package com.corelogic.sc.controllers;
 
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddProductRequest;
+import com.corelogic.sc.requests.ProductLookupRequest;
 import com.corelogic.sc.responses.ProductCategoryExceptionResponse;
+import com.corelogic.sc.responses.ProductLookupResponse;
 import com.corelogic.sc.responses.ProductResponse;
 import com.corelogic.sc.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -32,8 +35,10 @@ public class ProductController {
     }
 
     @GetMapping(value = "/{productCategoryName}")
-    public ResponseEntity<List<ProductResponse>> products(@PathVariable("productCategoryName") String productCategoryName) {
-        List<ProductResponse> productResponses = productService.getProducts(productCategoryName);
+    public ResponseEntity<List<ProductResponse>> products(@PathVariable("productCategoryName") String productCategoryName,
+                                                          @RequestParam(value = "after", required = false) String after,
+                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        List<ProductResponse> productResponses = productService.getProducts(productCategoryName, after, limit);
         return ResponseEntity.ok(productResponses);
     }
 
@@ -43,6 +48,11 @@ public class ProductController {
         return ResponseEntity.ok(productResponse);
     }
 
+    @PostMapping(value = "/lookup")
+    public ResponseEntity<List<ProductLookupResponse>> lookup(@RequestBody ProductLookupRequest productLookupRequest) {
+        return ResponseEntity.ok(productService.lookupProducts(productLookupRequest));
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ProductCategoryExceptionResponse> productNotFound(ProductNotFoundException exception) {
         return new ResponseEntity<>(new ProductCategoryExceptionResponse(exception.getMessage()), HttpStatus.BAD_REQUEST);
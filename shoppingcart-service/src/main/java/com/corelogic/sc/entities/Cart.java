@@ -10,6 +10,7 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,7 +21,7 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "cart")
-@ToString(exclude = {"items", "createdDate"})
+@ToString(exclude = {"items", "createdDate", "lastTouchedDate"})
 public class Cart implements Serializable {
     @Id
     @Column(name = "cart_name")
@@ -35,6 +36,15 @@ public class Cart implements Serializable {
     @Column(name = "created_date")
     private LocalDateTime createdDate;
 
+    // owned by the database: defaulted on insert and moved forward by CartRepository.touch
+    @Column(name = "last_touched_date", insertable = false, updatable = false)
+    private LocalDateTime lastTouchedDate;
+
+    // bumped by CartRepository.touch on every item change; sent to clients as the cart's ETag
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @JsonBackReference
     @OneToMany(mappedBy = "cart",
             cascade = CascadeType.ALL)
@@ -1,5 +1,6 @@
 package com.corelogic.sc.entities;
 
+import com.corelogic.sc.caches.SecondLevelCache;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.AllArgsConstructor;
@@ -7,7 +8,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -21,6 +25,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -29,6 +34,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.PRODUCT_REGION)
 @Table(name = "product")
 @ToString(exclude = {"productCategory", "createdDate"})
 public class Product implements Serializable {
@@ -42,17 +49,18 @@ public class Product implements Serializable {
     @Column(name = "description")
     private String description;
 
+    // written with JDBC, which evicts the product from the second-level cache; read live counts for stock decisions
     @Column(name = "inventory_count")
     private Integer inventoryCount;
 
-    @Column(name = "price")
-    private Double price;
+    @Column(name = "price", precision = 12, scale = 2)
+    private BigDecimal price;
 
     @Column(name = "created_date")
     private LocalDateTime createdDate;
 
     @JsonManagedReference
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_category_name", nullable = false)
     private ProductCategory productCategory;
 
@@ -1,12 +1,16 @@
 package com.corelogic.sc.entities;
 
+import com.corelogic.sc.caches.SecondLevelCache;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -23,6 +27,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.PRODUCT_CATEGORY_REGION)
 @Table(name = "product_category")
 @ToString(exclude = {"products", "createdDate"})
 public class ProductCategory implements Serializable {
@@ -37,7 +43,8 @@ public class ProductCategory implements Serializable {
     private LocalDateTime createdDate;
 
     @JsonBackReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.PRODUCT_CATEGORY_PRODUCTS_REGION)
     @OneToMany(mappedBy = "productCategory",
-            cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+            cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<Product> products;
 }
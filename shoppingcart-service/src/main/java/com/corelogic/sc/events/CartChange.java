@@ -0,0 +1,19 @@
+package com.corelogic.sc.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One change to a cart: {@code quantity} is the number of units added or taken off, like an item response;
+ * {@code lineQuantity} is what the line holds afterwards, or null when the change did not read the line.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class CartChange {
+    private CartChangeType type;
+    private String skuNumber;
+    private Integer quantity;
+    private Integer lineQuantity;
+}
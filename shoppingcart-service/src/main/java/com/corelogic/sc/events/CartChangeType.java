@@ -0,0 +1,17 @@
+package com.corelogic.sc.events;
+
+public enum CartChangeType {
+    /**
+     * Units were added to a line, which may be new.
+     */
+    ITEM_ADDED,
+    /**
+     * Units were taken off a line that is still in the cart.
+     */
+    ITEM_QUANTITY_CHANGED,
+    /**
+     * The line's last units were taken off and the line is gone.
+     */
+    ITEM_REMOVED,
+    CART_DELETED
+}
@@ -0,0 +1,20 @@
+package com.corelogic.sc.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Published by every change that touches a cart, carrying the version the touch moved the cart to. Versions go up
+ * by one per change, so a subscriber that holds a version knows exactly which events it has missed.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class CartChangedEvent {
+    private String cartName;
+    private Long cartVersion;
+    private List<CartChange> changes;
+}
@@ -0,0 +1,31 @@
+package com.corelogic.sc.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Runs the cart event heartbeat on a fixed delay. Besides keeping idle connections open through proxies, it bounds
+ * how long a subscriber can miss a change made through another node. A failed version check is retried next time.
+ */
+public class CartEventHeartbeat {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartEventHeartbeat.class);
+
+    private CartEventStreams cartEventStreams;
+
+    public CartEventHeartbeat(CartEventStreams cartEventStreams) {
+        this.cartEventStreams = cartEventStreams;
+    }
+
+    @Scheduled(initialDelayString = "${cart.events.heartbeat-millis:15000}",
+            fixedDelayString = "${cart.events.heartbeat-millis:15000}")
+    public void heartbeat() {
+        try {
+            cartEventStreams.heartbeat();
+        } catch (DataAccessException e) {
+            LOGGER.warn("Cart event heartbeat could not check the cart versions", e);
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.corelogic.sc.events;
+
+import com.corelogic.sc.responses.CartEventStatisticsResponse;
+import com.corelogic.sc.respositories.CartRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Streams each cart's changes to its subscribers as server-sent events whose ids are the cart versions. An idle
+ * subscriber is an async request held by the servlet container, a connection but no thread. Events are written by a
+ * small dispatch pool once the changing transaction has committed, in version order; the request that made the
+ * change never waits on a slow client.
+ * <p>
+ * The dispatch threads never write to a connection either. Each subscriber has a bounded queue of events that a
+ * writer pool sends outside the stream's lock, one writer at a time per subscriber. A client that falls a full queue
+ * behind is disconnected; it reconnects with its last event id and is replayed or resynced like any other client.
+ * <p>
+ * Each subscribed cart keeps its last events, so a client reconnecting with Last-Event-ID gets what it missed, and
+ * keeps them for a while after its last subscriber leaves. When the missed events are gone the client gets a resync
+ * event and refetches the items instead. The heartbeat reads the versions of all subscribed carts with one query per
+ * chunk: a cart that moved past its last event was changed through another node and is resynced, a cart that is gone
+ * was deleted or expired and its stream is closed. Carts expired here are closed right after the sweep commits.
+ */
+public class CartEventStreams {
+
+    public static final String CART_CHANGED = "cart-changed";
+
+    public static final String RESYNC = "resync";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartEventStreams.class);
+
+    private static final int VERSION_CHUNK_SIZE = 1000;
+
+    private static final long NOT_OBSERVED = Long.MIN_VALUE;
+
+    private static final long DELETED = -1;
+
+    private final ConcurrentHashMap<String, CartStream> streams = new ConcurrentHashMap<>();
+
+    private final CartRepository cartRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final long timeoutMillis;
+
+    private final int replaySize;
+
+    private final long retentionMillis;
+
+    private final int subscriberQueueSize;
+
+    private final ExecutorService executor;
+
+    private final ExecutorService writers;
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder replayed = new LongAdder();
+
+    private final LongAdder resyncs = new LongAdder();
+
+    private final LongAdder failedSends = new LongAdder();
+
+    private final LongAdder slowSubscribers = new LongAdder();
+
+    public CartEventStreams(CartRepository cartRepository, ObjectMapper objectMapper, long timeoutMillis, int replaySize,
+                            long retentionMillis, int dispatchThreads, int writerThreads, int subscriberQueueSize) {
+        this.cartRepository = cartRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.replaySize = replaySize;
+        this.retentionMillis = retentionMillis;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.executor = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("cart-events-"));
+        this.writers = Executors.newFixedThreadPool(writerThreads, daemonThreads("cart-event-writer-"));
+    }
+
+    /**
+     * Subscribes to a cart at the version just read from it. Given the id of the last event the client saw, the
+     * events since are replayed, or a resync is sent when they are no longer kept.
+     */
+    public SseEmitter subscribe(String cartName, long cartVersion, Long lastEventId) throws IOException {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter, subscriberQueueSize);
+        CartStream stream = streams.compute(cartName, (name, existing) -> {
+            CartStream current = existing == null || existing.closed ? new CartStream(name, cartVersion) : existing;
+            current.subscribers.add(subscriber);
+            return current;
+        });
+        emitter.onCompletion(() -> unsubscribe(stream, subscriber));
+
+        // the emitter buffers what is sent before the request returns, so these sends do not wait on the client
+        synchronized (stream) {
+            if (stream.closed) {
+                // closed since, which completed the emitter; the client reconnects
+                return emitter;
+            }
+            // from here on events are queued for it, the replay below covers the ones dispatched before
+            subscriber.subscribed = true;
+            if (lastEventId == null) {
+                // sent right away so the client sees the stream open
+                emitter.send(SseEmitter.event().comment("subscribed"));
+            } else if (lastEventId > Math.max(stream.dispatchedVersion, cartVersion)
+                    || (lastEventId < stream.dispatchedVersion && !stream.events.containsKey(lastEventId + 1))) {
+                // ahead of the cart, the client saw a deleted cart of the same name; behind, it missed too much
+                resyncs.increment();
+                emitter.send(resync(cartName, Math.max(stream.dispatchedVersion, cartVersion)));
+            } else {
+                for (StreamEvent event : stream.events.subMap(lastEventId, false, stream.dispatchedVersion, true).values()) {
+                    replayed.increment();
+                    emitter.send(event.toSse());
+                }
+            }
+        }
+        if (cartVersion > stream.dispatchedVersion) {
+            // changed through another node while nobody here was subscribed; resync without waiting for the heartbeat
+            stream.observedVersion = cartVersion;
+            scheduleDrain(stream);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void cartsExpired(CartsExpiredEvent cartsExpiredEvent) {
+        for (String cartName : cartsExpiredEvent.getCartNames()) {
+            CartStream stream = streams.get(cartName);
+            if (stream != null) {
+                stream.observedVersion = DELETED;
+                scheduleDrain(stream);
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void cartChanged(CartChangedEvent cartChangedEvent) {
+        CartStream stream = streams.get(cartChangedEvent.getCartName());
+        if (stream == null) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(cartChangedEvent);
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Cart {} version {} could not be streamed", cartChangedEvent.getCartName(),
+                    cartChangedEvent.getCartVersion(), e);
+            return;
+        }
+        boolean cartDeleted = cartChangedEvent.getChanges()
+                .stream()
+                .anyMatch(change -> change.getType() == CartChangeType.CART_DELETED);
+        published.increment();
+        stream.events.put(cartChangedEvent.getCartVersion(),
+                new StreamEvent(cartChangedEvent.getCartVersion(), json, cartDeleted));
+        scheduleDrain(stream);
+    }
+
+    /**
+     * Forgets the carts nobody has subscribed to for the retention time, then checks the version of every
+     * subscribed cart and has a heartbeat, a resync or the closing event sent to its subscribers.
+     */
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        List<CartStream> subscribed = new ArrayList<>();
+        for (CartStream stream : streams.values()) {
+            if (stream.subscribers.isEmpty()) {
+                streams.computeIfPresent(stream.cartName, (name, current) ->
+                        current == stream && current.subscribers.isEmpty() && now - current.idleSince >= retentionMillis
+                                ? null
+                                : current);
+            } else {
+                subscribed.add(stream);
+            }
+        }
+
+        for (int from = 0; from < subscribed.size(); from += VERSION_CHUNK_SIZE) {
+            List<CartStream> chunk = subscribed.subList(from, Math.min(subscribed.size(), from + VERSION_CHUNK_SIZE));
+            Map<String, CartStream> streamsByCartName = new HashMap<>();
+            chunk.forEach(stream -> streamsByCartName.put(stream.cartName, stream));
+            Map<String, Long> versionsByCartName = cartRepository.findVersionsByCartNames(streamsByCartName.keySet());
+            streamsByCartName.forEach((cartName, stream) -> {
+                stream.observedVersion = versionsByCartName.getOrDefault(cartName, DELETED);
+                scheduleDrain(stream);
+            });
+        }
+    }
+
+    /**
+     * Ends every stream, for when the carts were changed outside the service and the versions the streams are at
+     * mean nothing anymore. Clients reconnect with their last event id and are resynced.
+     */
+    public void reset() {
+        for (CartStream stream : streams.values()) {
+            synchronized (stream) {
+                close(stream, null);
+            }
+        }
+    }
+
+    public CartEventStatisticsResponse statistics() {
+        return CartEventStatisticsResponse
+                .builder()
+                .streams(streams.size())
+                .subscribers(streams.values().stream().mapToInt(stream -> stream.subscribers.size()).sum())
+                .published(published.sum())
+                .sent(sent.sum())
+                .replayed(replayed.sum())
+                .resyncs(resyncs.sum())
+                .failedSends(failedSends.sum())
+                .slowSubscribers(slowSubscribers.sum())
+                .build();
+    }
+
+    public void close() throws InterruptedException {
+        executor.shutdownNow();
+        writers.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // overridden by tests, which have no servlet container to hand the emitter to
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void scheduleDrain(CartStream stream) {
+        if (stream.drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(stream));
+            } catch (RejectedExecutionException e) {
+                stream.drainScheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(CartStream stream) {
+        stream.drainScheduled.set(false);
+        synchronized (stream) {
+            if (stream.closed || !dispatchPending(stream)) {
+                return;
+            }
+
+            long observedVersion = stream.observedVersion;
+            stream.observedVersion = NOT_OBSERVED;
+            if (observedVersion == DELETED) {
+                close(stream, () -> deleted(stream.cartName));
+                return;
+            }
+            if (observedVersion > stream.dispatchedVersion) {
+                // the events in between were never published here, so nothing before can be replayed either
+                stream.events.headMap(observedVersion, true).clear();
+                stream.dispatchedVersion = observedVersion;
+                resyncs.increment();
+                sendToAll(stream, () -> resync(stream.cartName, observedVersion));
+                if (!dispatchPending(stream)) {
+                    return;
+                }
+            } else if (observedVersion != NOT_OBSERVED) {
+                sendToAll(stream, () -> SseEmitter.event().comment("heartbeat"));
+            }
+
+            while (stream.events.size() > replaySize && stream.events.firstKey() <= stream.dispatchedVersion) {
+                stream.events.pollFirstEntry();
+            }
+        }
+    }
+
+    /**
+     * Sends the events that follow the last one sent, stopping at the first gap. Returns false when one of them
+     * deleted the cart and the stream was closed.
+     */
+    private boolean dispatchPending(CartStream stream) {
+        StreamEvent next = stream.events.get(stream.dispatchedVersion + 1);
+        while (next != null) {
+            StreamEvent event = next;
+            stream.dispatchedVersion = event.version;
+            if (event.closesStream) {
+                close(stream, event::toSse);
+                return false;
+            }
+            sendToAll(stream, event::toSse);
+            next = stream.events.get(stream.dispatchedVersion + 1);
+        }
+        return true;
+    }
+
+    private void close(CartStream stream, Supplier<SseEventBuilder> lastEvent) {
+        stream.closed = true;
+        if (lastEvent != null) {
+            sendToAll(stream, lastEvent);
+        }
+        streams.remove(stream.cartName, stream);
+        for (Subscriber subscriber : stream.subscribers) {
+            complete(stream, subscriber);
+        }
+        stream.subscribers.clear();
+    }
+
+    /**
+     * Queues the event for every subscriber and has it written. Never blocks: a subscriber whose queue is full is
+     * dropped instead.
+     */
+    private void sendToAll(CartStream stream, Supplier<SseEventBuilder> event) {
+        for (Subscriber subscriber : stream.subscribers) {
+            if (!subscriber.subscribed || subscriber.completing) {
+                continue;
+            }
+            if (subscriber.queue.offer(event.get())) {
+                scheduleWrite(stream, subscriber);
+            } else {
+                slowSubscribers.increment();
+                unsubscribe(stream, subscriber);
+                subscriber.queue.clear();
+                complete(stream, subscriber);
+            }
+        }
+    }
+
+    // the writer sends what is still queued, then completes the emitter
+    private void complete(CartStream stream, Subscriber subscriber) {
+        subscriber.completing = true;
+        scheduleWrite(stream, subscriber);
+    }
+
+    private void scheduleWrite(CartStream stream, Subscriber subscriber) {
+        if (subscriber.writeScheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> write(stream, subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.writeScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the subscriber's queued events in order. Runs on one writer at a time per subscriber, and runs again when
+     * an event or the completion arrived after the queue was found empty.
+     */
+    private void write(CartStream stream, Subscriber subscriber) {
+        do {
+            SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                    sent.increment();
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away; the container completes the emitter, and the flag is left set so
+                    // nothing is written to it again
+                    failedSends.increment();
+                    unsubscribe(stream, subscriber);
+                    subscriber.completing = true;
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+            if (subscriber.completing) {
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.writeScheduled.set(false);
+        } while ((!subscriber.queue.isEmpty() || subscriber.completing)
+                && subscriber.writeScheduled.compareAndSet(false, true));
+    }
+
+    private void unsubscribe(CartStream stream, Subscriber subscriber) {
+        stream.subscribers.remove(subscriber);
+        stream.idleSince = System.currentTimeMillis();
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static SseEventBuilder resync(String cartName, long cartVersion) {
+        return SseEmitter.event()
+                .id(String.valueOf(cartVersion))
+                .name(RESYNC)
+                .data(CartChangedEvent
+                        .builder()
+                        .cartName(cartName)
+                        .cartVersion(cartVersion)
+                        .changes(Collections.emptyList())
+                        .build(), MediaType.APPLICATION_JSON);
+    }
+
+    // without an id: the cart has no version left to resume from
+    private static SseEventBuilder deleted(String cartName) {
+        return SseEmitter.event()
+                .name(CART_CHANGED)
+                .data(CartChangedEvent
+                        .builder()
+                        .cartName(cartName)
+                        .changes(Collections.singletonList(CartChange.builder().type(CartChangeType.CART_DELETED).build()))
+                        .build(), MediaType.APPLICATION_JSON);
+    }
+
+    private static class StreamEvent {
+        private final long version;
+        private final String json;
+        private final boolean closesStream;
+
+        private StreamEvent(long version, String json, boolean closesStream) {
+            this.version = version;
+            this.json = json;
+            this.closesStream = closesStream;
+        }
+
+        private SseEventBuilder toSse() {
+            return SseEmitter.event().id(String.valueOf(version)).name(CART_CHANGED).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEventBuilder> queue;
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+        // set under the stream's lock by subscribe, which sends the replay itself
+        private volatile boolean subscribed;
+        private volatile boolean completing;
+
+        private Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+
+    private static class CartStream {
+        private final String cartName;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // the newest sent events, kept for replay, followed by any that wait for a missing version
+        private final ConcurrentSkipListMap<Long, StreamEvent> events = new ConcurrentSkipListMap<>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private volatile long observedVersion = NOT_OBSERVED;
+        private volatile long idleSince;
+        private volatile boolean closed;
+        // written under the stream's lock
+        private volatile long dispatchedVersion;
+
+        private CartStream(String cartName, long cartVersion) {
+            this.cartName = cartName;
+            this.dispatchedVersion = cartVersion;
+        }
+    }
+}
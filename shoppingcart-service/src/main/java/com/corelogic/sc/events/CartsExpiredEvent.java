@@ -0,0 +1,18 @@
+package com.corelogic.sc.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Published by the expiry sweep for each chunk of carts it deleted. Expiry deletes the carts without touching them,
+ * so there is no version to publish a cart change at; subscribers are sent the cart deleted event instead.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class CartsExpiredEvent {
+    private List<String> cartNames;
+}
@@ -4,4 +4,15 @@ public class CartNotFoundException extends Exception {
     public CartNotFoundException(String message) {
         super(message);
     }
+
+    /**
+     * Without a stack trace, for cart names the known keys filter rules out.
+     */
+    public static CartNotFoundException withoutStackTrace(String message) {
+        return new CartNotFoundException(message, false);
+    }
+
+    private CartNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,7 @@
+package com.corelogic.sc.exceptions;
+
+public class CartVersionMismatchException extends Exception {
+    public CartVersionMismatchException(String message) {
+        super(message);
+    }
+}
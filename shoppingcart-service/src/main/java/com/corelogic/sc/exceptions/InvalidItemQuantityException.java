@@ -0,0 +1,7 @@
+package com.corelogic.sc.exceptions;
+
+public class InvalidItemQuantityException extends Exception {
+    public InvalidItemQuantityException(String message) {
+        super(message);
+    }
+}
@@ -5,4 +5,16 @@ public class ProductNotFoundException extends Exception {
     public ProductNotFoundException(String message) {
         super(message);
     }
+
+    /**
+     * Without a stack trace, for sku#s the known keys filter rules out: those are answered at request rates where
+     * filling in the trace would cost more than the lookup that was skipped.
+     */
+    public static ProductNotFoundException withoutStackTrace(String message) {
+        return new ProductNotFoundException(message, false);
+    }
+
+    private ProductNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,29 @@
+package com.corelogic.sc.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every {@link DataSource} bean with {@link InstrumentedDataSource}, so JPA, Spring Data, JdbcTemplate and
+ * Flyway statements are all measured.
+ */
+public class DataSourceInstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final QueryShapeMetrics queryShapeMetrics;
+
+    private final long slowQueryMillis;
+
+    public DataSourceInstrumentationPostProcessor(QueryShapeMetrics queryShapeMetrics, long slowQueryMillis) {
+        this.queryShapeMetrics = queryShapeMetrics;
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return InstrumentedDataSource.wrap((DataSource) bean, queryShapeMetrics, slowQueryMillis);
+        }
+        return bean;
+    }
+}
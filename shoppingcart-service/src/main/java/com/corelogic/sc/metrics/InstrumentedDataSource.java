@@ -0,0 +1,146 @@
+package com.corelogic.sc.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * JDBC proxies that time every statement execution. Each execution is added to the request's
+ * {@link QueryStatistics} (when one is bound) and to {@link QueryShapeMetrics}; rows are the update count, or the rows
+ * read from the returned result set. Executions slower than the slow query threshold are logged.
+ */
+public final class InstrumentedDataSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentedDataSource.class);
+
+    private InstrumentedDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource, QueryShapeMetrics queryShapeMetrics, long slowQueryMillis) {
+        Recorder recorder = new Recorder(queryShapeMetrics, slowQueryMillis * 1000000);
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return method.getName().equals("getConnection") ? connection((Connection) result, recorder) : result;
+        });
+    }
+
+    private static Connection connection(Connection connection, Recorder recorder) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null, recorder);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (PreparedStatement) result, recorder.shape((String) args[0]), recorder);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (CallableStatement) result, recorder.shape((String) args[0]), recorder);
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private static <T extends Statement> T statement(Class<T> statementType, T statement, String preparedShape, Recorder recorder) {
+        return proxy(statementType, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            String shape = preparedShape != null || args == null || args.length == 0
+                    ? preparedShape
+                    : recorder.shape((String) args[0]);
+            long start = System.nanoTime();
+            Object result = invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+            recorder.record(shape, nanos, updatedRows(result));
+            return result instanceof ResultSet ? resultSet((ResultSet) result, shape, recorder) : result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet, String shape, Recorder recorder) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                recorder.recordRow(shape);
+            }
+            return result;
+        });
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(target, method, args)));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static class Recorder {
+
+        private final QueryShapeMetrics queryShapeMetrics;
+
+        private final long slowQueryNanos;
+
+        private Recorder(QueryShapeMetrics queryShapeMetrics, long slowQueryNanos) {
+            this.queryShapeMetrics = queryShapeMetrics;
+            this.slowQueryNanos = slowQueryNanos;
+        }
+
+        private String shape(String sql) {
+            return queryShapeMetrics.cachedShape(sql);
+        }
+
+        // a statement's shape is null when it only runs batched SQL added with addBatch(sql)
+        private void record(String shape, long nanos, long rows) {
+            String series = shape == null ? "<batch>" : shape;
+            queryShapeMetrics.record(series, nanos, rows);
+            QueryStatistics queryStatistics = QueryStatistics.current();
+            if (queryStatistics != null) {
+                queryStatistics.recordStatement(nanos, rows);
+            }
+            if (nanos > slowQueryNanos) {
+                LOGGER.warn("Slow query ({} ms): {}", nanos / 1000000, series);
+            }
+        }
+
+        private void recordRow(String shape) {
+            queryShapeMetrics.recordRows(shape == null ? "<batch>" : shape, 1);
+            QueryStatistics queryStatistics = QueryStatistics.current();
+            if (queryStatistics != null) {
+                queryStatistics.recordRows(1);
+            }
+        }
+    }
+}
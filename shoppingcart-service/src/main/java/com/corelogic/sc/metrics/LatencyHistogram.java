@@ -0,0 +1,105 @@
+package com.corelogic.sc.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds. Values below 64us get exact buckets; above that every power of two is
+ * split into 32 linear sub-buckets, so percentiles are accurate to about 3% up to days. Recording is two atomic
+ * increments and never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+
+    private static final int EXACT_BUCKETS = 2 * SUB_BUCKETS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = EXACT_BUCKETS + (MAX_EXPONENT - 5) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder totalMicros = new LongAdder();
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketIndex(value));
+        totalMicros.add(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            count += counts.get(index);
+        }
+        return count;
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    public double meanMicros() {
+        long count = count();
+        return count == 0 ? 0 : (double) totalMicros.sum() / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile (0-100), or 0 when nothing was recorded.
+     */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            snapshot[index] = counts.get(index);
+            count += snapshot[index];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(index), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public void reset() {
+        for (int index = 0; index < BUCKETS; index++) {
+            counts.set(index, 0);
+        }
+        totalMicros.reset();
+        maxMicros.set(0);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < EXACT_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        long subBucket = Math.min(micros >> (exponent - 5), 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return EXACT_BUCKETS + (exponent - 6) * SUB_BUCKETS + (int) subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < EXACT_BUCKETS) {
+            return index;
+        }
+        int exponent = 6 + (index - EXACT_BUCKETS) / SUB_BUCKETS;
+        long subBucket = SUB_BUCKETS + (index - EXACT_BUCKETS) % SUB_BUCKETS;
+        return ((subBucket + 1) << (exponent - 5)) - 1;
+    }
+}
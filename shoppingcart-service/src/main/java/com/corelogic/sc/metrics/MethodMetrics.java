@@ -0,0 +1,65 @@
+package com.corelogic.sc.metrics;
+
+import com.corelogic.sc.responses.MethodMetricsResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Latency histograms per instrumented method and outcome. Each series records into the current window; reading with
+ * reset swaps in a fresh window, so every read covers exactly the calls since the previous one. A call finishing
+ * during the swap may land in either window, but is never lost or counted twice, see {@link WindowedSeries}.
+ */
+@Component
+public class MethodMetrics {
+
+    private final ConcurrentMap<SeriesKey, WindowedSeries> series = new ConcurrentHashMap<>();
+
+    public void record(String method, String outcome, long nanos) {
+        series.computeIfAbsent(new SeriesKey(method, outcome), key -> new WindowedSeries()).record(nanos, 0);
+    }
+
+    public List<MethodMetricsResponse> snapshot(boolean reset) {
+        long now = System.nanoTime();
+        return series.entrySet()
+                .stream()
+                .map(entry -> response(entry.getKey(), entry.getValue().read(reset), now))
+                .filter(response -> response.getCount() > 0)
+                .sorted(Comparator.comparing(MethodMetricsResponse::getMethod)
+                        .thenComparing(MethodMetricsResponse::getOutcome))
+                .collect(Collectors.toList());
+    }
+
+    private static MethodMetricsResponse response(SeriesKey key, WindowedSeries.Window window, long now) {
+        LatencyHistogram histogram = window.histogram;
+        long count = histogram.count();
+        long windowMillis = Math.max(1, (now - window.startNanos) / 1000000);
+        return MethodMetricsResponse
+                .builder()
+                .method(key.getMethod())
+                .outcome(key.getOutcome())
+                .count(count)
+                .windowMillis(windowMillis)
+                .throughputPerSecond(count * 1000.0 / windowMillis)
+                .meanMicros(histogram.meanMicros())
+                .p50Micros(histogram.percentileMicros(50))
+                .p90Micros(histogram.percentileMicros(90))
+                .p99Micros(histogram.percentileMicros(99))
+                .p999Micros(histogram.percentileMicros(99.9))
+                .maxMicros(histogram.maxMicros())
+                .build();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class SeriesKey {
+        private String method;
+        private String outcome;
+    }
+}
@@ -0,0 +1,66 @@
+package com.corelogic.sc.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Times every public controller and service method, including the {@code @ExceptionHandler} methods, and records the
+ * result in {@link MethodMetrics}. The outcome of a controller method is its HTTP status; the outcome of a service
+ * method is "OK". A method that throws is recorded under the exception's simple name.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(value = "metrics.methods.enabled", havingValue = "true", matchIfMissing = true)
+public class MethodMetricsAspect {
+
+    private static final String OK = "OK";
+
+    private final Map<Method, String> methodNames = new ConcurrentHashMap<>();
+
+    private MethodMetrics methodMetrics;
+
+    @Autowired
+    public MethodMetricsAspect(MethodMetrics methodMetrics) {
+        this.methodMetrics = methodMetrics;
+    }
+
+    @Around("execution(public * com.corelogic.sc.controllers..*(..)) && !within(com.corelogic.sc.controllers.AdminController)"
+            + " || execution(public * com.corelogic.sc.services..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = OK;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof ResponseEntity) {
+                outcome = String.valueOf(((ResponseEntity<?>) result).getStatusCodeValue());
+            }
+            return result;
+        } catch (Throwable throwable) {
+            outcome = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            methodMetrics.record(methodName((MethodSignature) joinPoint.getSignature()), outcome, System.nanoTime() - start);
+        }
+    }
+
+    // controllers overload their handler methods, so the parameter types are part of the name
+    private String methodName(MethodSignature signature) {
+        return methodNames.computeIfAbsent(signature.getMethod(), method -> method.getDeclaringClass().getSimpleName()
+                + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")")));
+    }
+}
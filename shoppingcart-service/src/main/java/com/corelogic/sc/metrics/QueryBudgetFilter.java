@@ -0,0 +1,54 @@
+package com.corelogic.sc.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a {@link QueryStatistics} to each request and logs requests that run more statements or spend more time in
+ * the database than their budget. The statistics are left on the request under {@link #ATTRIBUTE} so tests can
+ * assert a query budget per endpoint.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String ATTRIBUTE = QueryStatistics.class.getName();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final long statementBudget;
+
+    private final long databaseMillisBudget;
+
+    public QueryBudgetFilter(long statementBudget, long databaseMillisBudget) {
+        this.statementBudget = statementBudget;
+        this.databaseMillisBudget = databaseMillisBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStatistics queryStatistics = QueryStatistics.begin();
+        request.setAttribute(ATTRIBUTE, queryStatistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStatistics.end();
+            if (queryStatistics.getStatements() > statementBudget || queryStatistics.getDatabaseMillis() > databaseMillisBudget) {
+                LOGGER.warn("{} {} ran {} statements returning or updating {} rows in {} ms (budget {} statements, {} ms)",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        queryStatistics.getStatements(),
+                        queryStatistics.getRows(),
+                        queryStatistics.getDatabaseMillis(),
+                        statementBudget,
+                        databaseMillisBudget);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.corelogic.sc.metrics;
+
+import com.corelogic.sc.responses.QueryShapeMetricsResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Execution time and rows per query shape: the SQL with literals replaced by '?', whitespace collapsed and IN lists
+ * folded, so the same query with different arguments or list lengths is one series. Reading with reset starts a new
+ * window, like {@link MethodMetrics}.
+ * <p>
+ * Shaping takes four regular expression passes, too much for every prepared statement, so shapes are cached per SQL
+ * string. Once the cache is full, SQL it does not hold is shaped on each use instead of evicting: the application's
+ * statements are cached early, and what misses later is mostly SQL with inlined literals that will not repeat.
+ */
+@Component
+public class QueryShapeMetrics {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final int SHAPE_CACHE_CAPACITY = 10000;
+
+    private final ConcurrentMap<String, WindowedSeries> shapes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> shapesBySql = new ConcurrentHashMap<>();
+
+    public String cachedShape(String sql) {
+        String shape = shapesBySql.get(sql);
+        if (shape == null) {
+            shape = shape(sql);
+            if (shapesBySql.size() < SHAPE_CACHE_CAPACITY) {
+                shapesBySql.putIfAbsent(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    public static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    public void record(String shape, long nanos, long rows) {
+        series(shape).record(nanos, rows);
+    }
+
+    public void recordRows(String shape, long rows) {
+        series(shape).recordRows(rows);
+    }
+
+    public List<QueryShapeMetricsResponse> snapshot(boolean reset) {
+        return shapes.entrySet()
+                .stream()
+                .map(entry -> response(entry.getKey(), entry.getValue().read(reset)))
+                .filter(response -> response.getCount() > 0)
+                .sorted(Comparator.comparing(QueryShapeMetricsResponse::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private WindowedSeries series(String shape) {
+        return shapes.computeIfAbsent(shape, key -> new WindowedSeries());
+    }
+
+    private static QueryShapeMetricsResponse response(String shape, WindowedSeries.Window window) {
+        LatencyHistogram histogram = window.histogram;
+        long count = histogram.count();
+        return QueryShapeMetricsResponse
+                .builder()
+                .shape(shape)
+                .count(count)
+                .rows(window.rows.sum())
+                .totalMillis(histogram.meanMicros() * count / 1000)
+                .meanMicros(histogram.meanMicros())
+                .p50Micros(histogram.percentileMicros(50))
+                .p99Micros(histogram.percentileMicros(99))
+                .maxMicros(histogram.maxMicros())
+                .build();
+    }
+}
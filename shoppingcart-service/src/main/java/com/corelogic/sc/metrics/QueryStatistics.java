@@ -0,0 +1,47 @@
+package com.corelogic.sc.metrics;
+
+import lombok.Getter;
+
+/**
+ * SQL statements, rows and database time of one HTTP request. The request's statistics are bound to the handling
+ * thread between {@link #begin()} and {@link #end()}; statements run on any other thread are not attributed to it.
+ */
+@Getter
+public class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long rows;
+
+    private long databaseNanos;
+
+    public static QueryStatistics begin() {
+        QueryStatistics queryStatistics = new QueryStatistics();
+        CURRENT.set(queryStatistics);
+        return queryStatistics;
+    }
+
+    public static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public long getDatabaseMillis() {
+        return databaseNanos / 1000000;
+    }
+
+    void recordStatement(long nanos, long rows) {
+        this.statements++;
+        this.rows += rows;
+        this.databaseNanos += nanos;
+    }
+
+    void recordRows(long rows) {
+        this.rows += rows;
+    }
+}
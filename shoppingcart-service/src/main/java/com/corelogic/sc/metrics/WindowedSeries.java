@@ -0,0 +1,70 @@
+package com.corelogic.sc.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One metric series, recorded into its current window until a read with reset swaps in a fresh one. A recording
+ * that overlaps the swap lands in either window but is never lost or counted twice: the recorder announces itself on
+ * the window before checking that it is still current and retries on the new one if not, and the reader waits for
+ * the recorders announced on the old window before reporting it.
+ */
+class WindowedSeries {
+
+    private final AtomicReference<Window> current = new AtomicReference<>(new Window());
+
+    void record(long nanos, long rows) {
+        Window window = enter();
+        try {
+            window.histogram.recordNanos(nanos);
+            if (rows != 0) {
+                window.rows.add(rows);
+            }
+        } finally {
+            window.recorders.decrementAndGet();
+        }
+    }
+
+    void recordRows(long rows) {
+        Window window = enter();
+        try {
+            window.rows.add(rows);
+        } finally {
+            window.recorders.decrementAndGet();
+        }
+    }
+
+    /**
+     * The current window, or with reset the window that was current, once no recorder is writing to it anymore.
+     * Recorders only hold a window for a few atomic increments, so the wait is a short spin.
+     */
+    Window read(boolean reset) {
+        if (!reset) {
+            return current.get();
+        }
+        Window window = current.getAndSet(new Window());
+        while (window.recorders.get() != 0) {
+            Thread.yield();
+        }
+        return window;
+    }
+
+    private Window enter() {
+        while (true) {
+            Window window = current.get();
+            window.recorders.incrementAndGet();
+            if (current.get() == window) {
+                return window;
+            }
+            window.recorders.decrementAndGet();
+        }
+    }
+
+    static class Window {
+        final long startNanos = System.nanoTime();
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        private final AtomicInteger recorders = new AtomicInteger();
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -17,7 +19,7 @@ public class AddProductRequest {
 
     private Integer inventoryCount;
 
-    private Double price;
+    private BigDecimal price;
 
     private String productCategoryName;
 }
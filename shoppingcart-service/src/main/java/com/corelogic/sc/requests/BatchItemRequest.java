@@ -0,0 +1,17 @@
+package com.corelogic.sc.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BatchItemRequest {
+
+    private String cartName;
+
+    private List<ItemOperationRequest> operations;
+}
@@ -0,0 +1,7 @@
+package com.corelogic.sc.requests;
+
+public enum ItemOperation {
+
+    ADD,
+    REMOVE
+}
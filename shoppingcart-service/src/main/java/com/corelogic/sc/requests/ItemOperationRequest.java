@@ -0,0 +1,17 @@
+package com.corelogic.sc.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ItemOperationRequest {
+
+    private ItemOperation operation;
+
+    private Integer quantity;
+
+    private String skuNumber;
+}
@@ -0,0 +1,15 @@
+package com.corelogic.sc.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductLookupRequest {
+
+    private List<String> skuNumbers;
+}
@@ -0,0 +1,18 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CacheStatisticsResponse {
+    private String name;
+    private Integer size;
+    private Integer capacity;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Long expirations;
+}
@@ -0,0 +1,19 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CartEventStatisticsResponse {
+    private Integer streams;
+    private Integer subscribers;
+    private Long published;
+    private Long sent;
+    private Long replayed;
+    private Long resyncs;
+    private Long failedSends;
+    private Long slowSubscribers;
+}
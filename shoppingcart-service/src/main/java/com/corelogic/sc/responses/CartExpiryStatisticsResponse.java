@@ -0,0 +1,17 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CartExpiryStatisticsResponse {
+    private Integer ttlMinutes;
+    private Integer chunkSize;
+    private Long chunks;
+    private Long expiredCarts;
+    private Long releasedItems;
+    private Long restoredProducts;
+}
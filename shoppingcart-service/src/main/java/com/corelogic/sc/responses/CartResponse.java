@@ -1,5 +1,6 @@
 package com.corelogic.sc.responses;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,4 +12,8 @@ public class CartResponse {
     private String cartName;
     private String description;
     private CartStatus status;
+
+    // sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CartSummaryResponse {
+    private String cartName;
+    private Long lineCount;
+    private Long unitCount;
+    private BigDecimal subtotal;
+}
@@ -0,0 +1,13 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class InventoryExportResponse {
+    private String skuNumber;
+    private Integer inventoryCount;
+}
@@ -1,12 +1,17 @@
 package com.corelogic.sc.responses;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
 
 @Data
 @Builder
 @AllArgsConstructor
+@EqualsAndHashCode(exclude = "cartVersion")
 public class ItemResponse {
 
     private Integer quantity;
@@ -17,5 +22,13 @@ public class ItemResponse {
 
     private String skuNumber;
 
-    private Double price;
+    private BigDecimal price;
+
+    // the cart's version after the read or change, sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long cartVersion;
+
+    public ItemResponse(Integer quantity, String status, String cartName, String skuNumber, BigDecimal price, Long cartVersion) {
+        this(quantity, ItemStatus.getItemStatus(status), cartName, skuNumber, price, cartVersion);
+    }
 }
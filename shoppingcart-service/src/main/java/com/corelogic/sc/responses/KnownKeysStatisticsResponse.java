@@ -0,0 +1,15 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class KnownKeysStatisticsResponse {
+    private String name;
+    private Long capacity;
+    private Double falsePositiveRate;
+    private Long definiteMisses;
+}
@@ -0,0 +1,22 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class MethodMetricsResponse {
+    private String method;
+    private String outcome;
+    private Long count;
+    private Long windowMillis;
+    private Double throughputPerSecond;
+    private Double meanMicros;
+    private Long p50Micros;
+    private Long p90Micros;
+    private Long p99Micros;
+    private Long p999Micros;
+    private Long maxMicros;
+}
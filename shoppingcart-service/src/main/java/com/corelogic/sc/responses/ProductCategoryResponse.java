@@ -10,4 +10,5 @@ import lombok.Data;
 public class ProductCategoryResponse {
     private String productCategoryName;
     private String description;
+    private Long productCount;
 }
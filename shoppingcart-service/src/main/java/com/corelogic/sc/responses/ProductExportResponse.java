@@ -0,0 +1,21 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductExportResponse {
+    private String skuNumber;
+    private String productName;
+    private String description;
+    private Integer inventoryCount;
+    private BigDecimal price;
+    private String productCategoryName;
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,14 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductLookupResponse {
+    private String skuNumber;
+    private ProductLookupStatus status;
+    private ProductResponse product;
+}
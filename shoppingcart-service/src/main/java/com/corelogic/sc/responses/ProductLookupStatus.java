@@ -0,0 +1,7 @@
+package com.corelogic.sc.responses;
+
+public enum ProductLookupStatus {
+
+    FOUND,
+    NOT_FOUND
+}
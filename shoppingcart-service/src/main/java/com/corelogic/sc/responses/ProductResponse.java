@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -12,5 +14,5 @@ public class ProductResponse {
     private String productName;
     private String description;
     private Integer inventoryCount;
-    private Double price;
+    private BigDecimal price;
 }
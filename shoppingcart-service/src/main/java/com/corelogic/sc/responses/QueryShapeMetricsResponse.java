@@ -0,0 +1,19 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class QueryShapeMetricsResponse {
+    private String shape;
+    private Long count;
+    private Long rows;
+    private Double totalMillis;
+    private Double meanMicros;
+    private Long p50Micros;
+    private Long p99Micros;
+    private Long maxMicros;
+}
@@ -0,0 +1,17 @@
+package com.corelogic.sc.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SingleFlightStatisticsResponse {
+    private String name;
+    private Long deadlineMillis;
+    private Integer inFlight;
+    private Long lookups;
+    private Long coalesced;
+    private Long deadlineExpirations;
+}
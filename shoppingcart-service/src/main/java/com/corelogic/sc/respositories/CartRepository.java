@@ -1,10 +1,49 @@
 package com.corelogic.sc.respositories;
 
 import com.corelogic.sc.entities.Cart;
+import com.corelogic.sc.responses.CartSummaryResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface CartRepository extends JpaRepository<Cart, String> {
+public interface CartRepository extends JpaRepository<Cart, String>, CartRepositoryCustom {
     Cart findByCartName(String cartName);
+
+    /**
+     * Line count, unit count and subtotal aggregated in the database; the sums are null for a cart without items,
+     * and there is no row for an unknown cart.
+     */
+    @Query("SELECT new com.corelogic.sc.responses.CartSummaryResponse(" +
+            "cart.cartName, COUNT(item), SUM(item.quantity), SUM(item.quantity * product.price)) " +
+            "FROM Cart cart LEFT JOIN cart.items item LEFT JOIN item.product product " +
+            "WHERE cart.cartName = :cartName GROUP BY cart.cartName")
+    CartSummaryResponse findCartSummaryByCartName(@Param("cartName") String cartName);
+
+    @Modifying
+    @Query("DELETE FROM Cart cart WHERE cart.cartName = :cartName")
+    int deleteByCartName(@Param("cartName") String cartName);
+
+    @Modifying
+    @Query("DELETE FROM Cart cart WHERE cart.cartName IN :cartNames")
+    int deleteByCartNameIn(@Param("cartNames") Collection<String> cartNames);
+
+    @Query("SELECT cart.version FROM Cart cart WHERE cart.cartName = :cartName")
+    Long findVersionByCartName(@Param("cartName") String cartName);
+
+    /**
+     * Locks up to {@code limit} active carts untouched for {@code ttlMinutes}, oldest first. Carts another
+     * transaction holds a lock on (a sweeper on another node, or an item change in flight) are skipped, not waited
+     * for.
+     */
+    @Query(value = "SELECT cart_name FROM cart " +
+            "WHERE status = 'ACTIVE' AND last_touched_date < LOCALTIMESTAMP - :ttlMinutes * INTERVAL '1 minute' " +
+            "ORDER BY last_touched_date LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<String> claimExpiredCartNames(@Param("ttlMinutes") int ttlMinutes, @Param("limit") int limit);
 }
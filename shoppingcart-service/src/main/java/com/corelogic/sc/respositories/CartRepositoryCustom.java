@@ -0,0 +1,20 @@
+package com.corelogic.sc.respositories;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface CartRepositoryCustom {
+
+    Long touch(String cartName, Long expectedVersion);
+
+    /**
+     * Streams every cart name to the consumer, a fetch size at a time.
+     */
+    void forEachCartName(Consumer<String> consumer);
+
+    /**
+     * Reads the versions of the given carts with one {@code cart_name = ANY(?)} query. Missing carts are absent.
+     */
+    Map<String, Long> findVersionsByCartNames(Collection<String> cartNames);
+}
@@ -0,0 +1,74 @@
+package com.corelogic.sc.respositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Every item change touches its cart first: one statement moves the last touched date to the database's current
+ * time, bumps the version and returns the new version. The row lock it takes serializes changes to the same cart and
+ * makes a sweeper skip the cart. Touches and expiry both use the database clock, so clock skew between nodes cannot
+ * expire a live cart.
+ */
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    private static final String TOUCH_CART = "UPDATE cart SET last_touched_date = LOCALTIMESTAMP, version = version + 1 " +
+            "WHERE cart_name = ? RETURNING version";
+
+    private static final String TOUCH_CART_AT_VERSION = "UPDATE cart SET last_touched_date = LOCALTIMESTAMP, version = version + 1 " +
+            "WHERE cart_name = ? AND version = ? RETURNING version";
+
+    private static final String SELECT_CART_NAMES = "SELECT cart_name FROM cart";
+
+    private static final String SELECT_VERSIONS_BY_CART_NAMES = "SELECT cart_name, version FROM cart WHERE cart_name = ANY(?)";
+
+    private static final int FETCH_SIZE = 10000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CartRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the cart's new version, or null when the cart does not exist or, given an expected version, is at
+     * another version.
+     */
+    @Override
+    public Long touch(String cartName, Long expectedVersion) {
+        List<Long> versions = expectedVersion == null
+                ? jdbcTemplate.queryForList(TOUCH_CART, Long.class, cartName)
+                : jdbcTemplate.queryForList(TOUCH_CART_AT_VERSION, Long.class, cartName, expectedVersion);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public void forEachCartName(Consumer<String> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CART_NAMES);
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getString("cart_name")));
+    }
+
+    @Override
+    public Map<String, Long> findVersionsByCartNames(Collection<String> cartNames) {
+        Map<String, Long> versionsByCartName = new HashMap<>();
+        if (cartNames.isEmpty()) {
+            return versionsByCartName;
+        }
+        jdbcTemplate.query(SELECT_VERSIONS_BY_CART_NAMES,
+                preparedStatement -> preparedStatement.setArray(1,
+                        preparedStatement.getConnection().createArrayOf("varchar", cartNames.toArray())),
+                (RowCallbackHandler) resultSet -> versionsByCartName.put(resultSet.getString("cart_name"), resultSet.getLong("version")));
+        return versionsByCartName;
+    }
+}
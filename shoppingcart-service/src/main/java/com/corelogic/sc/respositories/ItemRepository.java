@@ -1,18 +1,46 @@
 package com.corelogic.sc.respositories;
 
-import com.corelogic.sc.entities.Cart;
 import com.corelogic.sc.entities.Item;
+import com.corelogic.sc.responses.ItemResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findItemsByCart(Cart cart);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    @Query("SELECT new com.corelogic.sc.responses.ItemResponse(" +
+            "item.quantity, item.status, cart.cartName, product.skuNumber, product.price, cart.version) " +
+            "FROM Item item JOIN item.cart cart JOIN item.product product " +
+            "WHERE cart.cartName = :cartName ORDER BY item.itemId")
+    List<ItemResponse> findItemResponsesByCartName(@Param("cartName") String cartName);
 
     @Query("SELECT item FROM Item item WHERE item.cart.cartName = :cartName")
     List<Item> findByCartName(@Param("cartName") String cartName);
+
+    @Query("SELECT item FROM Item item JOIN FETCH item.product " +
+            "WHERE item.cart.cartName = :cartName AND item.product.skuNumber = :skuNumber " +
+            "ORDER BY item.itemId")
+    List<Item> findByCartNameAndSkuNumber(@Param("cartName") String cartName,
+                                          @Param("skuNumber") String skuNumber,
+                                          Pageable pageable);
+
+    @Query("SELECT item FROM Item item " +
+            "WHERE item.cart.cartName = :cartName AND item.product.skuNumber IN :skuNumbers " +
+            "ORDER BY item.itemId")
+    List<Item> findByCartNameAndSkuNumberIn(@Param("cartName") String cartName,
+                                            @Param("skuNumbers") Collection<String> skuNumbers);
+
+    @Modifying
+    @Query("DELETE FROM Item item WHERE item.cart.cartName = :cartName")
+    int deleteByCartName(@Param("cartName") String cartName);
+
+    @Modifying
+    @Query("DELETE FROM Item item WHERE item.cart.cartName IN :cartNames")
+    int deleteByCartNameIn(@Param("cartNames") Collection<String> cartNames);
 }
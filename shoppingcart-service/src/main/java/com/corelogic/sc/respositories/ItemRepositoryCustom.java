@@ -0,0 +1,16 @@
+package com.corelogic.sc.respositories;
+
+import com.corelogic.sc.entities.Item;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ItemRepositoryCustom {
+
+    void upsertItems(List<Item> items);
+
+    void updateItemQuantities(Map<Long, Integer> quantitiesByItemId);
+
+    void deleteItems(Collection<Long> itemIds);
+}
@@ -0,0 +1,77 @@
+package com.corelogic.sc.respositories;
+
+import com.corelogic.sc.entities.Item;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC batch writes for items, so a multi-line cart change costs one round trip per statement type rather than one
+ * per item. A cart holds one row per sku#: adding to a sku# already in the cart adds to that row's quantity.
+ */
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    private static final String UPSERT_ITEM =
+            "INSERT INTO item (quantity, status, created_date, cart_name, sku_number) VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (cart_name, sku_number) DO UPDATE SET quantity = item.quantity + EXCLUDED.quantity";
+
+    private static final String UPDATE_ITEM_QUANTITY = "UPDATE item SET quantity = ? WHERE item_id = ?";
+
+    private static final String DELETE_ITEM = "DELETE FROM item WHERE item_id = ?";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ItemRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertItems(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        if (items.size() == 1) {
+            Item item = items.get(0);
+            jdbcTemplate.update(UPSERT_ITEM,
+                    item.getQuantity(),
+                    item.getStatus(),
+                    Timestamp.valueOf(item.getCreatedDate()),
+                    item.getCart().getCartName(),
+                    item.getProduct().getSkuNumber());
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_ITEM, items.stream().map(item -> new Object[]{
+                item.getQuantity(),
+                item.getStatus(),
+                Timestamp.valueOf(item.getCreatedDate()),
+                item.getCart().getCartName(),
+                item.getProduct().getSkuNumber()
+        }).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void updateItemQuantities(Map<Long, Integer> quantitiesByItemId) {
+        if (quantitiesByItemId.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_ITEM_QUANTITY, quantitiesByItemId.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void deleteItems(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_ITEM, itemIds.stream()
+                .map(itemId -> new Object[]{itemId})
+                .collect(Collectors.toList()));
+    }
+}
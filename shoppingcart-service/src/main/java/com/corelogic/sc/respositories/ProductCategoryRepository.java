@@ -1,10 +1,38 @@
 package com.corelogic.sc.respositories;
 
+import com.corelogic.sc.caches.SecondLevelCache;
 import com.corelogic.sc.entities.ProductCategory;
+import com.corelogic.sc.responses.ProductCategoryResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface ProductCategoryRepository extends JpaRepository<ProductCategory, String> {
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.QUERY_REGION)})
     ProductCategory findByProductCategoryName(String productCategoryName);
+
+    @Query("SELECT new com.corelogic.sc.responses.ProductCategoryResponse(" +
+            "productCategory.productCategoryName, productCategory.description, COUNT(product)) " +
+            "FROM ProductCategory productCategory LEFT JOIN productCategory.products product " +
+            "GROUP BY productCategory.productCategoryName, productCategory.description " +
+            "ORDER BY productCategory.productCategoryName")
+    List<ProductCategoryResponse> findProductCategoryResponses();
+
+    @Query("SELECT new com.corelogic.sc.responses.ProductCategoryResponse(" +
+            "productCategory.productCategoryName, productCategory.description, COUNT(product)) " +
+            "FROM ProductCategory productCategory LEFT JOIN productCategory.products product " +
+            "WHERE productCategory.productCategoryName = :productCategoryName " +
+            "GROUP BY productCategory.productCategoryName, productCategory.description")
+    ProductCategoryResponse findProductCategoryResponseByProductCategoryName(@Param("productCategoryName") String productCategoryName);
 }
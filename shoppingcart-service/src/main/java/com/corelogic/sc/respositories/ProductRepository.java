@@ -1,13 +1,50 @@
 package com.corelogic.sc.respositories;
 
+import com.corelogic.sc.caches.SecondLevelCache;
 import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.responses.ProductResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, String> {
+public interface ProductRepository extends JpaRepository<Product, String>, ProductRepositoryCustom {
 
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.QUERY_REGION)})
     Product findBySkuNumber(String skuNumber);
+
+    List<Product> findBySkuNumberIn(Collection<String> skuNumbers);
+
+    @Query("SELECT product.inventoryCount FROM Product product WHERE product.skuNumber = :skuNumber")
+    Integer findInventoryCountBySkuNumber(@Param("skuNumber") String skuNumber);
+
+    @Query("SELECT product.skuNumber AS skuNumber, product.inventoryCount AS inventoryCount " +
+            "FROM Product product WHERE product.skuNumber IN :skuNumbers")
+    List<InventoryCount> findInventoryCountsBySkuNumbers(@Param("skuNumbers") Collection<String> skuNumbers);
+
+    @Query("SELECT new com.corelogic.sc.responses.ProductResponse(product.skuNumber, product.productName, product.description, product.inventoryCount, product.price) " +
+            "FROM Product product " +
+            "WHERE product.productCategory.productCategoryName = :productCategoryName AND product.skuNumber > :after " +
+            "ORDER BY product.skuNumber")
+    List<ProductResponse> findProductResponsesByProductCategoryName(@Param("productCategoryName") String productCategoryName,
+                                                                    @Param("after") String after,
+                                                                    Pageable pageable);
+
+    interface InventoryCount {
+        String getSkuNumber();
+
+        Integer getInventoryCount();
+    }
 }
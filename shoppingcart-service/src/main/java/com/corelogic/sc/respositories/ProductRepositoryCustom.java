@@ -0,0 +1,69 @@
+package com.corelogic.sc.respositories;
+
+import com.corelogic.sc.responses.InventoryExportResponse;
+import com.corelogic.sc.responses.ProductExportResponse;
+import com.corelogic.sc.responses.ProductResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Inventory counts are written here with plain JDBC rather than JPQL or native {@code @Modifying} queries: Hibernate
+ * answers a bulk update by evicting the whole product cache region, so every added item would empty it. These writes
+ * evict only the products they changed from the second-level cache instead.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Takes the quantity out of inventory only when enough is left. Returns the number of updated products, 0 when
+     * the inventory was insufficient.
+     */
+    int decrementInventoryCount(String skuNumber, Integer quantity);
+
+    int incrementInventoryCount(String skuNumber, Integer quantity);
+
+    /**
+     * Returns the stock held by the cart's items. Returns the number of updated products.
+     */
+    int restoreInventoryCountsForCart(String cartName);
+
+    /**
+     * Returns the stock held by all items of the given carts with one statement. The products are locked in sku#
+     * order first, the same order the batched inventory adjustments use, so concurrent sweeps cannot deadlock.
+     */
+    int restoreInventoryCountsForCarts(Collection<String> cartNames);
+
+    /**
+     * Applies every inventory change in a single JDBC batch, in sku# order. A positive quantity is taken out of
+     * inventory only when enough is left; a negative quantity is returned to inventory. Returns the sku#s whose
+     * inventory was insufficient.
+     */
+    List<String> adjustInventoryCounts(Map<String, Integer> quantitiesBySkuNumber);
+
+    /**
+     * Reads the given sku#s with one {@code sku_number = ANY(?)} query. Unknown sku#s are simply absent from the
+     * result, which is in no particular order.
+     */
+    List<ProductResponse> findProductResponsesBySkuNumbers(Collection<String> skuNumbers);
+
+    /**
+     * Streams every sku# to the consumer, a fetch size at a time.
+     */
+    void forEachSkuNumber(Consumer<String> consumer);
+
+    /**
+     * Streams the products in sku# order through a forward only cursor, a fetch size at a time, so only one batch is
+     * ever held in memory. With {@code updatedSince} only the products updated at or after it are streamed. Must run
+     * in a transaction, otherwise the driver reads the whole result before the first row is handed out.
+     */
+    void forEachProductExport(LocalDateTime updatedSince, Consumer<ProductExportResponse> consumer);
+
+    /**
+     * Streams every sku# with its inventory count in sku# order, like {@link #forEachProductExport}. Inventory changes
+     * leave a product's updated date alone, so this is how stock is exported.
+     */
+    void forEachInventoryExport(Consumer<InventoryExportResponse> consumer);
+}
@@ -0,0 +1,206 @@
+package com.corelogic.sc.respositories;
+
+import com.corelogic.sc.caches.SecondLevelCache;
+import com.corelogic.sc.responses.InventoryExportResponse;
+import com.corelogic.sc.responses.ProductExportResponse;
+import com.corelogic.sc.responses.ProductResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String ADJUST_INVENTORY_COUNT =
+            "UPDATE product SET inventory_count = inventory_count - ? WHERE sku_number = ? AND inventory_count >= ?";
+
+    private static final String INCREMENT_INVENTORY_COUNT =
+            "UPDATE product SET inventory_count = inventory_count + ? WHERE sku_number = ?";
+
+    private static final String RESTORE_INVENTORY_COUNTS_FOR_CART =
+            "UPDATE product SET inventory_count = product.inventory_count + reserved.quantity " +
+                    "FROM (SELECT item.sku_number, sum(item.quantity) AS quantity FROM item " +
+                    "WHERE item.cart_name = ? GROUP BY item.sku_number) reserved " +
+                    "WHERE product.sku_number = reserved.sku_number " +
+                    "RETURNING product.sku_number";
+
+    private static final String RESTORE_INVENTORY_COUNTS_FOR_CARTS =
+            "WITH locked AS (SELECT product.sku_number FROM product " +
+                    "WHERE product.sku_number IN (SELECT item.sku_number FROM item WHERE item.cart_name = ANY(?)) " +
+                    "ORDER BY product.sku_number FOR NO KEY UPDATE) " +
+                    "UPDATE product SET inventory_count = product.inventory_count + reserved.quantity " +
+                    "FROM (SELECT item.sku_number, sum(item.quantity) AS quantity FROM item " +
+                    "WHERE item.cart_name = ANY(?) GROUP BY item.sku_number) reserved " +
+                    "WHERE product.sku_number = reserved.sku_number " +
+                    "AND product.sku_number IN (SELECT sku_number FROM locked) " +
+                    "RETURNING product.sku_number";
+
+    private static final String SELECT_PRODUCTS_BY_SKU_NUMBERS =
+            "SELECT sku_number, product_name, description, inventory_count, price FROM product WHERE sku_number = ANY(?)";
+
+    private static final String SELECT_SKU_NUMBERS = "SELECT sku_number FROM product";
+
+    private static final String SELECT_PRODUCT_EXPORTS =
+            "SELECT sku_number, product_name, description, inventory_count, price, product_category_name, updated_date " +
+                    "FROM product ORDER BY sku_number";
+
+    private static final String SELECT_PRODUCT_EXPORTS_UPDATED_SINCE =
+            "SELECT sku_number, product_name, description, inventory_count, price, product_category_name, updated_date " +
+                    "FROM product WHERE updated_date >= ? ORDER BY sku_number";
+
+    private static final String SELECT_INVENTORY_EXPORTS =
+            "SELECT sku_number, inventory_count FROM product ORDER BY sku_number";
+
+    private static final int FETCH_SIZE = 10000;
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate, SecondLevelCache secondLevelCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    @Override
+    public int decrementInventoryCount(String skuNumber, Integer quantity) {
+        int updated = jdbcTemplate.update(ADJUST_INVENTORY_COUNT, quantity, skuNumber, quantity);
+        secondLevelCache.evictProducts(Collections.singletonList(skuNumber));
+        return updated;
+    }
+
+    @Override
+    public int incrementInventoryCount(String skuNumber, Integer quantity) {
+        int updated = jdbcTemplate.update(INCREMENT_INVENTORY_COUNT, quantity, skuNumber);
+        secondLevelCache.evictProducts(Collections.singletonList(skuNumber));
+        return updated;
+    }
+
+    @Override
+    public int restoreInventoryCountsForCart(String cartName) {
+        List<String> skuNumbers = jdbcTemplate.queryForList(RESTORE_INVENTORY_COUNTS_FOR_CART, String.class, cartName);
+        secondLevelCache.evictProducts(skuNumbers);
+        return skuNumbers.size();
+    }
+
+    @Override
+    public int restoreInventoryCountsForCarts(Collection<String> cartNames) {
+        if (cartNames.isEmpty()) {
+            return 0;
+        }
+        List<String> skuNumbers = jdbcTemplate.query(RESTORE_INVENTORY_COUNTS_FOR_CARTS,
+                preparedStatement -> {
+                    Object[] cartNameArray = cartNames.toArray();
+                    preparedStatement.setArray(1, preparedStatement.getConnection().createArrayOf("varchar", cartNameArray));
+                    preparedStatement.setArray(2, preparedStatement.getConnection().createArrayOf("varchar", cartNameArray));
+                },
+                (resultSet, rowNumber) -> resultSet.getString("sku_number"));
+        secondLevelCache.evictProducts(skuNumbers);
+        return skuNumbers.size();
+    }
+
+    @Override
+    public List<String> adjustInventoryCounts(Map<String, Integer> quantitiesBySkuNumber) {
+        // sku# order keeps the row locks of concurrent batches in the same order
+        List<String> skuNumbers = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(quantitiesBySkuNumber).forEach((skuNumber, quantity) -> {
+            skuNumbers.add(skuNumber);
+            batchArgs.add(new Object[]{quantity, skuNumber, quantity});
+        });
+        if (batchArgs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(ADJUST_INVENTORY_COUNT, batchArgs);
+        secondLevelCache.evictProducts(skuNumbers);
+
+        List<String> insufficientSkuNumbers = new ArrayList<>();
+        for (int index = 0; index < updateCounts.length; index++) {
+            if (updateCounts[index] == 0) {
+                insufficientSkuNumbers.add(skuNumbers.get(index));
+            }
+        }
+        return insufficientSkuNumbers;
+    }
+
+    @Override
+    public List<ProductResponse> findProductResponsesBySkuNumbers(Collection<String> skuNumbers) {
+        if (skuNumbers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.query(SELECT_PRODUCTS_BY_SKU_NUMBERS,
+                preparedStatement -> preparedStatement.setArray(1,
+                        preparedStatement.getConnection().createArrayOf("varchar", skuNumbers.toArray())),
+                (resultSet, rowNumber) -> ProductResponse
+                        .builder()
+                        .skuNumber(resultSet.getString("sku_number"))
+                        .productName(resultSet.getString("product_name"))
+                        .description(resultSet.getString("description"))
+                        .inventoryCount(resultSet.getInt("inventory_count"))
+                        .price(resultSet.getBigDecimal("price"))
+                        .build());
+    }
+
+    @Override
+    public void forEachSkuNumber(Consumer<String> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(SELECT_SKU_NUMBERS);
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getString("sku_number")));
+    }
+
+    @Override
+    public void forEachProductExport(LocalDateTime updatedSince, Consumer<ProductExportResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(
+                    updatedSince == null ? SELECT_PRODUCT_EXPORTS : SELECT_PRODUCT_EXPORTS_UPDATED_SINCE,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            if (updatedSince != null) {
+                preparedStatement.setTimestamp(1, Timestamp.valueOf(updatedSince));
+            }
+            preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(ProductExportResponse
+                .builder()
+                .skuNumber(resultSet.getString("sku_number"))
+                .productName(resultSet.getString("product_name"))
+                .description(resultSet.getString("description"))
+                .inventoryCount(resultSet.getInt("inventory_count"))
+                .price(resultSet.getBigDecimal("price"))
+                .productCategoryName(resultSet.getString("product_category_name"))
+                .updatedDate(resultSet.getTimestamp("updated_date").toLocalDateTime())
+                .build()));
+    }
+
+    @Override
+    public void forEachInventoryExport(Consumer<InventoryExportResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(SELECT_INVENTORY_EXPORTS,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(InventoryExportResponse
+                .builder()
+                .skuNumber(resultSet.getString("sku_number"))
+                .inventoryCount(resultSet.getInt("inventory_count"))
+                .build()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.events.CartsExpiredEvent;
+import com.corelogic.sc.responses.CartExpiryStatisticsResponse;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expires carts nobody has touched for the configured TTL and returns the inventory their items reserved. Each call
+ * handles one chunk in its own transaction with four statements whatever the chunk size: claim the carts with
+ * FOR UPDATE SKIP LOCKED, restore the inventory of all their items with one aggregated update, then delete the items
+ * and the carts. Sweepers on several nodes split the expired carts between them instead of waiting on each other,
+ * and a cart with an item change in flight is skipped until the next sweep. The expired cart names are published
+ * after commit, which closes their event streams with a cart deleted event.
+ */
+@Service
+public class CartExpiryService {
+
+    private CartRepository cartRepository;
+
+    private ItemRepository itemRepository;
+
+    private ProductRepository productRepository;
+
+    private int ttlMinutes;
+
+    private int chunkSize;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder chunks = new LongAdder();
+
+    private final LongAdder expiredCarts = new LongAdder();
+
+    private final LongAdder releasedItems = new LongAdder();
+
+    private final LongAdder restoredProducts = new LongAdder();
+
+    @Autowired
+    public CartExpiryService(CartRepository cartRepository,
+                             ItemRepository itemRepository,
+                             ProductRepository productRepository,
+                             @Value("${cart.expiry.ttl-minutes:1440}") int ttlMinutes,
+                             @Value("${cart.expiry.chunk-size:500}") int chunkSize,
+                             ApplicationEventPublisher eventPublisher) {
+        this.cartRepository = cartRepository;
+        this.itemRepository = itemRepository;
+        this.productRepository = productRepository;
+        this.ttlMinutes = ttlMinutes;
+        this.chunkSize = chunkSize;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Expires one chunk of carts and returns how many were expired; fewer than the chunk size means the sweep has
+     * caught up.
+     */
+    @Transactional
+    public int expireCarts() {
+        List<String> cartNames = cartRepository.claimExpiredCartNames(ttlMinutes, chunkSize);
+        if (cartNames.isEmpty()) {
+            return 0;
+        }
+
+        int products = productRepository.restoreInventoryCountsForCarts(cartNames);
+        int items = itemRepository.deleteByCartNameIn(cartNames);
+        cartRepository.deleteByCartNameIn(cartNames);
+        eventPublisher.publishEvent(CartsExpiredEvent.builder().cartNames(cartNames).build());
+
+        chunks.increment();
+        expiredCarts.add(cartNames.size());
+        releasedItems.add(items);
+        restoredProducts.add(products);
+        return cartNames.size();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public CartExpiryStatisticsResponse statistics() {
+        return CartExpiryStatisticsResponse
+                .builder()
+                .ttlMinutes(ttlMinutes)
+                .chunkSize(chunkSize)
+                .chunks(chunks.sum())
+                .expiredCarts(expiredCarts.sum())
+                .releasedItems(releasedItems.sum())
+                .restoredProducts(restoredProducts.sum())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.corelogic.sc.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Runs the cart expiry on a fixed delay. A sweep keeps expiring chunks while they come back full, up to a cap so
+ * one node does not hold a scheduler thread for a huge backlog; the rest waits for the next sweep. A failed chunk
+ * (a deadlock victim, a lost connection) rolls back on its own and its carts are picked up again next time.
+ */
+public class CartExpirySweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartExpirySweeper.class);
+
+    private CartExpiryService cartExpiryService;
+
+    private int maxChunksPerSweep;
+
+    public CartExpirySweeper(CartExpiryService cartExpiryService, int maxChunksPerSweep) {
+        this.cartExpiryService = cartExpiryService;
+        this.maxChunksPerSweep = maxChunksPerSweep;
+    }
+
+    @Scheduled(initialDelayString = "${cart.expiry.sweep-interval-millis:60000}",
+            fixedDelayString = "${cart.expiry.sweep-interval-millis:60000}")
+    public void sweep() {
+        int expired = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerSweep; chunk++) {
+                int expiredInChunk = cartExpiryService.expireCarts();
+                expired += expiredInChunk;
+                if (expiredInChunk < cartExpiryService.getChunkSize()) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Cart expiry sweep stopped after {} carts", expired, e);
+        }
+        if (expired > 0) {
+            LOGGER.info("Expired {} abandoned carts", expired);
+        }
+    }
+}
@@ -1,31 +1,57 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.ReadCoalescer;
 import com.corelogic.sc.entities.Cart;
-import com.corelogic.sc.entities.Item;
+import com.corelogic.sc.events.CartChange;
+import com.corelogic.sc.events.CartChangeType;
+import com.corelogic.sc.events.CartChangedEvent;
 import com.corelogic.sc.exceptions.CartNotFoundException;
-import com.corelogic.sc.exceptions.ItemNotFoundException;
-import com.corelogic.sc.exceptions.ProductNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.requests.AddCartRequest;
 import com.corelogic.sc.requests.DeleteCartRequest;
-import com.corelogic.sc.requests.RemoveItemFromCartRequest;
 import com.corelogic.sc.responses.CartResponse;
 import com.corelogic.sc.responses.CartStatus;
+import com.corelogic.sc.responses.CartSummaryResponse;
 import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
 
 @Service
 public class CartService {
 
     private CartRepository cartRepository;
 
-    private ItemService itemService;
+    private ItemRepository itemRepository;
+
+    private ProductRepository productRepository;
+
+    private ReadCoalescer readCoalescer;
+
+    private KnownKeysFilter knownKeysFilter;
+
+    private ApplicationEventPublisher eventPublisher;
 
-    public CartService(CartRepository cartRepository, ItemService itemService) {
+    public CartService(CartRepository cartRepository, ItemRepository itemRepository, ProductRepository productRepository,
+                       ReadCoalescer readCoalescer, KnownKeysFilter knownKeysFilter, ApplicationEventPublisher eventPublisher) {
         this.cartRepository = cartRepository;
-        this.itemService = itemService;
+        this.itemRepository = itemRepository;
+        this.productRepository = productRepository;
+        this.readCoalescer = readCoalescer;
+        this.knownKeysFilter = knownKeysFilter;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public CartResponse createCart(AddCartRequest addCartRequest) {
+        knownKeysFilter.putCartName(addCartRequest.getCartName());
         Cart cart = Cart
                 .builder()
                 .cartName(addCartRequest.getCartName())
@@ -39,36 +65,91 @@ public class CartService {
                 .cartName(savedCart.getCartName())
                 .description(savedCart.getDescription())
                 .status(CartStatus.getCartStatus(savedCart.getStatus()))
+                .version(savedCart.getVersion())
                 .build();
     }
 
+    /**
+     * Concurrent requests for the same cart, typically clients polling it, share one lookup.
+     */
     public CartResponse findCart(String cartName) throws CartNotFoundException {
-        Cart foundCart = cartRepository.findByCartName(cartName);
-        if (foundCart == null) {
+        requireKnownCartName(cartName);
+        CartResponse cartResponse = readCoalescer.carts().execute(cartName, () -> {
+            Cart foundCart = cartRepository.findByCartName(cartName);
+            if (foundCart == null) {
+                return null;
+            }
+            return CartResponse
+                    .builder()
+                    .cartName(foundCart.getCartName())
+                    .description(foundCart.getDescription())
+                    .status(CartStatus.getCartStatus(foundCart.getStatus()))
+                    .version(foundCart.getVersion())
+                    .build();
+        });
+        if (cartResponse == null) {
             throw new CartNotFoundException("Cart " + cartName + " was not found");
         }
-        return CartResponse
-                .builder()
-                .cartName(foundCart.getCartName())
-                .description(foundCart.getDescription())
-                .status(CartStatus.getCartStatus(foundCart.getStatus()))
-                .build();
+        return cartResponse;
+    }
+
+    /**
+     * One indexed lookup, for answering conditional requests without reading the cart.
+     */
+    public Long cartVersion(String cartName) throws CartNotFoundException {
+        requireKnownCartName(cartName);
+        Long cartVersion = cartRepository.findVersionByCartName(cartName);
+        if (cartVersion == null) {
+            throw new CartNotFoundException("Cart " + cartName + " was not found");
+        }
+        return cartVersion;
     }
 
-    public void deleteCart(DeleteCartRequest deleteCartRequest)
-            throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
+    public CartSummaryResponse cartSummary(String cartName) throws CartNotFoundException {
+        requireKnownCartName(cartName);
+        CartSummaryResponse cartSummaryResponse = cartRepository.findCartSummaryByCartName(cartName);
+        if (cartSummaryResponse == null) {
+            throw new CartNotFoundException("Cart " + cartName + " was not found");
+        }
+        if (cartSummaryResponse.getUnitCount() == null) {
+            cartSummaryResponse.setUnitCount(0L);
+        }
+        cartSummaryResponse.setSubtotal(cartSummaryResponse.getSubtotal() == null
+                ? BigDecimal.ZERO.setScale(2)
+                : cartSummaryResponse.getSubtotal().setScale(2, RoundingMode.UNNECESSARY));
+        return cartSummaryResponse;
+    }
 
-        Cart cart = cartRepository.findByCartName(deleteCartRequest.getCartName());
-        if (cart == null) {
-            throw new CartNotFoundException("Cart " + deleteCartRequest.getCartName() + " was not found");
+    /**
+     * Returns the stock held by every item in the cart with one aggregated update, then deletes the items and the
+     * cart in bulk. The statement count does not depend on the number of items in the cart. The cart is touched
+     * first, which locks it and, with an expected version (from If-Match), only succeeds at that version.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteCart(DeleteCartRequest deleteCartRequest, Long expectedCartVersion)
+            throws CartNotFoundException, CartVersionMismatchException {
+        String cartName = deleteCartRequest.getCartName();
+        Long cartVersion = cartRepository.touch(cartName, expectedCartVersion);
+        if (cartVersion == null) {
+            if (expectedCartVersion != null && cartRepository.existsById(cartName)) {
+                throw new CartVersionMismatchException("Cart " + cartName + " is no longer at version " + expectedCartVersion);
+            }
+            throw new CartNotFoundException("Cart " + cartName + " was not found");
         }
-        for (Item item : cart.getItems()) {
-            itemService.removeItem(RemoveItemFromCartRequest.builder()
-                    .skuNumber(item.getProduct().getSkuNumber())
-                    .quantity(item.getQuantity())
-                    .cartName(cart.getCartName())
-                    .build());
+        productRepository.restoreInventoryCountsForCart(cartName);
+        itemRepository.deleteByCartName(cartName);
+        cartRepository.deleteByCartName(cartName);
+        eventPublisher.publishEvent(CartChangedEvent
+                .builder()
+                .cartName(cartName)
+                .cartVersion(cartVersion)
+                .changes(Collections.singletonList(CartChange.builder().type(CartChangeType.CART_DELETED).build()))
+                .build());
+    }
+
+    private void requireKnownCartName(String cartName) throws CartNotFoundException {
+        if (!knownKeysFilter.mightContainCartName(cartName)) {
+            throw CartNotFoundException.withoutStackTrace("Cart " + cartName + " was not found");
         }
-        cartRepository.deleteById(deleteCartRequest.getCartName());
     }
 }
@@ -0,0 +1,91 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.responses.InventoryExportResponse;
+import com.corelogic.sc.responses.ProductExportResponse;
+import com.corelogic.sc.respositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Exports the product catalog as newline delimited JSON, one product per line. Rows go from the database cursor
+ * through a streaming generator straight to the output, so memory use stays the same however large the catalog is.
+ * Inventory changes do not move a product's updated date, so stock has an export of its own.
+ */
+@Service
+public class CatalogExportService {
+
+    private ProductRepository productRepository;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter productWriter;
+
+    private ObjectWriter inventoryWriter;
+
+    @Autowired
+    public CatalogExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        // the generator flushes whenever its buffer fills; a flush per product would send a chunk per product
+        this.productWriter = objectMapper
+                .writerFor(ProductExportResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.inventoryWriter = objectMapper
+                .writerFor(InventoryExportResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every product, or only those updated at or after {@code updatedSince}, and returns how many were
+     * written. The output stream is flushed but left open.
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(LocalDateTime updatedSince, OutputStream outputStream) throws IOException {
+        return this.<ProductExportResponse>export(outputStream, productWriter,
+                consumer -> productRepository.forEachProductExport(updatedSince, consumer));
+    }
+
+    /**
+     * Writes the sku# and inventory count of every product and returns how many were written. The output stream is
+     * flushed but left open.
+     */
+    @Transactional(readOnly = true)
+    public long exportInventoryCounts(OutputStream outputStream) throws IOException {
+        return export(outputStream, inventoryWriter, productRepository::forEachInventoryExport);
+    }
+
+    private <T> long export(OutputStream outputStream, ObjectWriter writer, Consumer<Consumer<T>> rows) throws IOException {
+        AtomicLong exported = new AtomicLong();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are ended explicitly, so no separator between the root values
+            generator.setRootValueSeparator(null);
+            try {
+                rows.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    exported.incrementAndGet();
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return exported.get();
+    }
+}
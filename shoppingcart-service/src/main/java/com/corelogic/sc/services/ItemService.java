@@ -1,24 +1,42 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
 import com.corelogic.sc.entities.Cart;
 import com.corelogic.sc.entities.Item;
 import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.events.CartChange;
+import com.corelogic.sc.events.CartChangeType;
+import com.corelogic.sc.events.CartChangedEvent;
 import com.corelogic.sc.exceptions.CartNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.exceptions.InsufficientProductInventoryException;
+import com.corelogic.sc.exceptions.InvalidItemQuantityException;
 import com.corelogic.sc.exceptions.ItemNotFoundException;
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.BatchItemRequest;
+import com.corelogic.sc.requests.ItemOperation;
+import com.corelogic.sc.requests.ItemOperationRequest;
 import com.corelogic.sc.requests.RemoveItemFromCartRequest;
 import com.corelogic.sc.responses.ItemResponse;
 import com.corelogic.sc.responses.ItemStatus;
 import com.corelogic.sc.respositories.CartRepository;
 import com.corelogic.sc.respositories.ItemRepository;
 import com.corelogic.sc.respositories.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,118 +50,349 @@ public class ItemService {
 
     private ProductRepository productRepository;
 
-    public ItemService(Clock clock, ItemRepository itemRepository, CartRepository cartRepository, ProductRepository productRepository) {
+    private KnownKeysFilter knownKeysFilter;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public ItemService(Clock clock, ItemRepository itemRepository, CartRepository cartRepository, ProductRepository productRepository,
+                       KnownKeysFilter knownKeysFilter, ApplicationEventPublisher eventPublisher) {
         this.clock = clock;
         this.itemRepository = itemRepository;
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
+        this.knownKeysFilter = knownKeysFilter;
+        this.eventPublisher = eventPublisher;
     }
 
-    public ItemResponse addItem(AddItemRequest addItemRequest)
-            throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
-        Cart cart = cartRepository.findByCartName(addItemRequest.getCartName());
-        if (cart == null) {
-            throw new CartNotFoundException("Cart " + addItemRequest.getCartName() + " was not found");
-        }
+    /**
+     * Reserves the inventory and adds the quantity to the cart's line for the sku#, creating the line if the cart
+     * does not hold the sku# yet, with a single upsert. The cart is touched rather than loaded. The conditional
+     * decrement is the only inventory guard, so a quantity that is not positive is rejected before anything is written.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ItemResponse addItem(AddItemRequest addItemRequest, Long expectedCartVersion)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException,
+            InvalidItemQuantityException {
+        requirePositiveQuantity(addItemRequest.getSkuNumber(), addItemRequest.getQuantity());
+        Long cartVersion = touchCart(addItemRequest.getCartName(), expectedCartVersion);
 
         Product product = productRepository.findBySkuNumber(addItemRequest.getSkuNumber());
         if (product == null) {
             throw new ProductNotFoundException("No product exists for sku# " + addItemRequest.getSkuNumber());
         }
 
-        if (product.getInventoryCount() < addItemRequest.getQuantity()) {
+        if (productRepository.decrementInventoryCount(addItemRequest.getSkuNumber(), addItemRequest.getQuantity()) == 0) {
             throw new InsufficientProductInventoryException("Insufficient inventory count for product sku# "
                     + addItemRequest.getSkuNumber());
         }
-        product.setInventoryCount(product.getInventoryCount() - addItemRequest.getQuantity());
 
-        Item item = itemRepository.save(Item
+        Item item = Item
                 .builder()
-                .cart(cart)
+                .cart(Cart.builder().cartName(addItemRequest.getCartName()).build())
                 .product(product)
                 .quantity(addItemRequest.getQuantity())
                 .status(ItemStatus.ITEM_ACTIVE.name())
                 .createdDate(LocalDateTime.now(clock))
-                .build());
+                .build();
+        itemRepository.upsertItems(Collections.singletonList(item));
+        publishCartChanged(addItemRequest.getCartName(), cartVersion, Collections.singletonList(CartChange
+                .builder()
+                .type(CartChangeType.ITEM_ADDED)
+                .skuNumber(addItemRequest.getSkuNumber())
+                .quantity(addItemRequest.getQuantity())
+                .build()));
 
         return ItemResponse
                 .builder()
                 .quantity(item.getQuantity())
                 .status(ItemStatus.getItemStatus(item.getStatus()))
-                .cartName(cart.getCartName())
+                .cartName(addItemRequest.getCartName())
                 .skuNumber(item.getProduct().getSkuNumber())
                 .price(item.getProduct().getPrice())
+                .cartVersion(cartVersion)
                 .build();
     }
 
-    public ItemResponse removeItem(RemoveItemFromCartRequest removeItemFromCartRequest) throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        List<Item> savedItems = itemRepository.findByCartName(removeItemFromCartRequest.getCartName());
-        if (savedItems == null || savedItems.isEmpty()) {
-            throw new ItemNotFoundException("Item " + removeItemFromCartRequest.getSkuNumber() + " was not found");
-        }
+    /**
+     * Returns the quantity to inventory and takes it off the cart's line, deleting the line when nothing is left. A
+     * quantity that is not positive, or more than the line holds, is rejected before inventory is returned.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ItemResponse removeItem(RemoveItemFromCartRequest removeItemFromCartRequest, Long expectedCartVersion)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException,
+            InvalidItemQuantityException {
+        requirePositiveQuantity(removeItemFromCartRequest.getSkuNumber(), removeItemFromCartRequest.getQuantity());
+        Long cartVersion = touchCart(removeItemFromCartRequest.getCartName(), expectedCartVersion);
 
-        Item savedItem = savedItems.stream().filter(item ->
-                item.getProduct().getSkuNumber().equals(removeItemFromCartRequest.getSkuNumber())).findFirst().orElse(null);
+        Item savedItem = itemRepository.findByCartNameAndSkuNumber(removeItemFromCartRequest.getCartName(),
+                removeItemFromCartRequest.getSkuNumber(),
+                PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null);
 
         if (savedItem == null) {
             throw new ItemNotFoundException("Item " + removeItemFromCartRequest.getSkuNumber() + " was not found");
         }
-
-        Cart cart = cartRepository.findByCartName(removeItemFromCartRequest.getCartName());
-        if (cart == null) {
-            throw new CartNotFoundException("Cart " + removeItemFromCartRequest.getCartName() + " was not found");
+        if (removeItemFromCartRequest.getQuantity() > savedItem.getQuantity()) {
+            throw new InvalidItemQuantityException("Cannot remove " + removeItemFromCartRequest.getQuantity() + " of item "
+                    + removeItemFromCartRequest.getSkuNumber() + ", the cart holds " + savedItem.getQuantity());
         }
 
-        Product product = productRepository.findBySkuNumber(removeItemFromCartRequest.getSkuNumber());
-        if (product == null) {
-            throw new ProductNotFoundException("No product exists for sku# " + removeItemFromCartRequest.getSkuNumber());
-        }
-        product.setInventoryCount(product.getInventoryCount() + removeItemFromCartRequest.getQuantity());
+        productRepository.incrementInventoryCount(removeItemFromCartRequest.getSkuNumber(), removeItemFromCartRequest.getQuantity());
 
         Integer updatedQuantity = savedItem.getQuantity() - removeItemFromCartRequest.getQuantity();
 
         if (updatedQuantity == 0) {
-            cart.setItems(cart
-                    .getItems()
-                    .stream()
-                    .filter(item -> !item.getItemId().equals(savedItem.getItemId()))
-                    .collect(Collectors.toList()));
-
-            product.setItems(product
-                    .getItems()
-                    .stream()
-                    .filter(item -> !item.getItemId().equals(savedItem.getItemId()))
-                    .collect(Collectors.toList()));
-            itemRepository.deleteById(savedItem.getItemId());
+            itemRepository.delete(savedItem);
         } else {
             savedItem.setQuantity(updatedQuantity);
         }
-        productRepository.save(product);
+        publishCartChanged(removeItemFromCartRequest.getCartName(), cartVersion, Collections.singletonList(CartChange
+                .builder()
+                .type(updatedQuantity == 0 ? CartChangeType.ITEM_REMOVED : CartChangeType.ITEM_QUANTITY_CHANGED)
+                .skuNumber(removeItemFromCartRequest.getSkuNumber())
+                .quantity(removeItemFromCartRequest.getQuantity())
+                .lineQuantity(updatedQuantity)
+                .build()));
 
         return ItemResponse
                 .builder()
                 .quantity(removeItemFromCartRequest.getQuantity())
                 .status(ItemStatus.ITEM_REMOVED)
-                .cartName(cart.getCartName())
+                .cartName(removeItemFromCartRequest.getCartName())
                 .skuNumber(savedItem.getProduct().getSkuNumber())
                 .price(savedItem.getProduct().getPrice())
+                .cartVersion(cartVersion)
                 .build();
     }
 
+    /**
+     * Applies a cart's add and remove operations in one transaction. Products and existing items are each read with
+     * one query, inventory is adjusted with one batched statement and item rows are written with JDBC batches. Adds
+     * for the same sku# are merged into one line; when existing items were not read (no removes), new lines are
+     * upserted onto whatever the cart already holds. A missing product or item, insufficient inventory for any
+     * sku#, or a quantity that is not positive or removes more than the line holds, rolls the whole batch back.
+     * A batch without operations changes nothing, so it only checks the cart's version and leaves the cart alone.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<ItemResponse> batchItems(BatchItemRequest batchItemRequest, Long expectedCartVersion)
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException,
+            InsufficientProductInventoryException, InvalidItemQuantityException {
+        String cartName = batchItemRequest.getCartName();
+        List<ItemOperationRequest> operations = batchItemRequest.getOperations() == null
+                ? new ArrayList<>()
+                : batchItemRequest.getOperations();
+        if (operations.isEmpty()) {
+            cartVersion(cartName, expectedCartVersion);
+            return new ArrayList<>();
+        }
+        for (ItemOperationRequest operation : operations) {
+            requirePositiveQuantity(operation.getSkuNumber(), operation.getQuantity());
+        }
+        Long cartVersion = touchCart(cartName, expectedCartVersion);
+
+        Set<String> skuNumbers = operations
+                .stream()
+                .map(ItemOperationRequest::getSkuNumber)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, Product> productsBySkuNumber = productRepository.findBySkuNumberIn(skuNumbers)
+                .stream()
+                .collect(Collectors.toMap(Product::getSkuNumber, product -> product));
+        for (String skuNumber : skuNumbers) {
+            if (!productsBySkuNumber.containsKey(skuNumber)) {
+                throw new ProductNotFoundException("No product exists for sku# " + skuNumber);
+            }
+        }
+
+        Map<String, BatchLine> linesBySkuNumber = new HashMap<>();
+        boolean linesRead = operations.stream().anyMatch(operation -> operation.getOperation() == ItemOperation.REMOVE);
+        if (linesRead) {
+            for (Item item : itemRepository.findByCartNameAndSkuNumberIn(cartName, skuNumbers)) {
+                linesBySkuNumber.put(item.getProduct().getSkuNumber(), new BatchLine(item.getItemId(), item.getQuantity()));
+            }
+        }
+
+        Map<String, Integer> inventoryQuantitiesBySkuNumber = new HashMap<>();
+        List<Long> removedItemIds = new ArrayList<>();
+        List<ItemResponse> itemResponses = new ArrayList<>();
+        List<CartChange> changes = new ArrayList<>();
+        for (ItemOperationRequest operation : operations) {
+            String skuNumber = operation.getSkuNumber();
+            BatchLine line = linesBySkuNumber.get(skuNumber);
+            ItemStatus status;
+            if (operation.getOperation() == ItemOperation.REMOVE) {
+                if (line == null) {
+                    throw new ItemNotFoundException("Item " + skuNumber + " was not found");
+                }
+                if (operation.getQuantity() > line.quantity) {
+                    throw new InvalidItemQuantityException("Cannot remove " + operation.getQuantity() + " of item "
+                            + skuNumber + ", the cart holds " + line.quantity);
+                }
+                line.quantity -= operation.getQuantity();
+                if (line.quantity == 0) {
+                    linesBySkuNumber.remove(skuNumber);
+                    if (line.itemId != null) {
+                        removedItemIds.add(line.itemId);
+                    }
+                }
+                inventoryQuantitiesBySkuNumber.merge(skuNumber, -operation.getQuantity(), Integer::sum);
+                status = ItemStatus.ITEM_REMOVED;
+                changes.add(CartChange
+                        .builder()
+                        .type(line.quantity == 0 ? CartChangeType.ITEM_REMOVED : CartChangeType.ITEM_QUANTITY_CHANGED)
+                        .skuNumber(skuNumber)
+                        .quantity(operation.getQuantity())
+                        .lineQuantity(line.quantity)
+                        .build());
+            } else {
+                if (line == null) {
+                    line = new BatchLine(null, operation.getQuantity());
+                    linesBySkuNumber.put(skuNumber, line);
+                } else {
+                    line.quantity += operation.getQuantity();
+                }
+                inventoryQuantitiesBySkuNumber.merge(skuNumber, operation.getQuantity(), Integer::sum);
+                status = ItemStatus.ITEM_ACTIVE;
+                changes.add(CartChange
+                        .builder()
+                        .type(CartChangeType.ITEM_ADDED)
+                        .skuNumber(skuNumber)
+                        .quantity(operation.getQuantity())
+                        .lineQuantity(linesRead ? line.quantity : null)
+                        .build());
+            }
+            itemResponses.add(ItemResponse
+                    .builder()
+                    .quantity(operation.getQuantity())
+                    .status(status)
+                    .cartName(cartName)
+                    .skuNumber(skuNumber)
+                    .price(productsBySkuNumber.get(skuNumber).getPrice())
+                    .cartVersion(cartVersion)
+                    .build());
+        }
+
+        inventoryQuantitiesBySkuNumber.values().removeIf(quantity -> quantity == 0);
+        List<String> insufficientSkuNumbers = productRepository.adjustInventoryCounts(inventoryQuantitiesBySkuNumber);
+        if (!insufficientSkuNumbers.isEmpty()) {
+            throw new InsufficientProductInventoryException("Insufficient inventory count for product sku# "
+                    + insufficientSkuNumbers.get(0));
+        }
+
+        Cart cart = Cart.builder().cartName(cartName).build();
+        LocalDateTime createdDate = LocalDateTime.now(clock);
+        List<Item> newItems = new ArrayList<>();
+        Map<Long, Integer> updatedQuantitiesByItemId = new HashMap<>();
+        linesBySkuNumber.forEach((skuNumber, line) -> {
+            if (line.itemId == null) {
+                newItems.add(Item
+                        .builder()
+                        .cart(cart)
+                        .product(productsBySkuNumber.get(skuNumber))
+                        .quantity(line.quantity)
+                        .status(ItemStatus.ITEM_ACTIVE.name())
+                        .createdDate(createdDate)
+                        .build());
+            } else if (line.quantity != line.savedQuantity) {
+                updatedQuantitiesByItemId.put(line.itemId, line.quantity);
+            }
+        });
+        itemRepository.deleteItems(removedItemIds);
+        itemRepository.updateItemQuantities(updatedQuantitiesByItemId);
+        itemRepository.upsertItems(newItems);
+        publishCartChanged(cartName, cartVersion, changes);
+
+        return itemResponses;
+    }
+
+    /**
+     * Reads a cart's items, each carrying the cart's version, with one projection query whatever the number of lines;
+     * the cart itself is only looked up when that query comes back empty, to tell an empty cart from a missing one.
+     */
     public List<ItemResponse> retrieveItems(String cartName) throws CartNotFoundException {
-        Cart cart = cartRepository.findByCartName(cartName);
-        if (cart == null) {
+        requireKnownCartName(cartName);
+        List<ItemResponse> itemResponses = itemRepository.findItemResponsesByCartName(cartName);
+        if (itemResponses.isEmpty() && !cartRepository.existsById(cartName)) {
             throw new CartNotFoundException("Cart " + cartName + " was not found");
         }
+        return itemResponses;
+    }
+
+    /**
+     * One indexed lookup, for answering conditional requests without reading the items.
+     */
+    public Long cartVersion(String cartName) throws CartNotFoundException {
+        requireKnownCartName(cartName);
+        Long cartVersion = cartRepository.findVersionByCartName(cartName);
+        if (cartVersion == null) {
+            throw new CartNotFoundException("Cart " + cartName + " was not found");
+        }
+        return cartVersion;
+    }
+
+    /**
+     * The same lookup for a request that changes nothing: with an expected version (from If-Match) a cart at another
+     * version is a mismatch, as it would be for a change.
+     */
+    public Long cartVersion(String cartName, Long expectedCartVersion) throws CartNotFoundException, CartVersionMismatchException {
+        Long cartVersion = cartVersion(cartName);
+        if (expectedCartVersion != null && !expectedCartVersion.equals(cartVersion)) {
+            throw new CartVersionMismatchException("Cart " + cartName + " is no longer at version " + expectedCartVersion);
+        }
+        return cartVersion;
+    }
 
-        List<Item> items = itemRepository.findItemsByCart(cart);
-        return items.stream().map(item -> ItemResponse
+    /**
+     * Subscribers get the event once the transaction commits; a rolled back change also rolls back its version.
+     */
+    private void publishCartChanged(String cartName, Long cartVersion, List<CartChange> changes) {
+        eventPublisher.publishEvent(CartChangedEvent
                 .builder()
-                .price(item.getProduct().getPrice())
-                .quantity(item.getQuantity())
-                .status(ItemStatus.getItemStatus(item.getStatus()))
-                .skuNumber(item.getProduct().getSkuNumber())
-                .cartName(item.getCart().getCartName())
-                .build()).collect(Collectors.toList());
+                .cartName(cartName)
+                .cartVersion(cartVersion)
+                .changes(changes)
+                .build());
+    }
+
+    private void requireKnownCartName(String cartName) throws CartNotFoundException {
+        if (!knownKeysFilter.mightContainCartName(cartName)) {
+            throw CartNotFoundException.withoutStackTrace("Cart " + cartName + " was not found");
+        }
+    }
+
+    private static void requirePositiveQuantity(String skuNumber, Integer quantity) throws InvalidItemQuantityException {
+        if (quantity == null || quantity <= 0) {
+            throw new InvalidItemQuantityException("Quantity " + quantity + " for item " + skuNumber + " must be positive");
+        }
+    }
+
+    /**
+     * Every change starts by touching the cart: that bumps its version, keeps it from expiring and locks its row, so
+     * changes to one cart are serialized and a sweeper that has claimed the cart is waited for. With an expected
+     * version (from If-Match) the touch only succeeds at that version.
+     */
+    private Long touchCart(String cartName, Long expectedCartVersion) throws CartNotFoundException, CartVersionMismatchException {
+        Long cartVersion = cartRepository.touch(cartName, expectedCartVersion);
+        if (cartVersion == null) {
+            if (expectedCartVersion != null && cartRepository.existsById(cartName)) {
+                throw new CartVersionMismatchException("Cart " + cartName + " is no longer at version " + expectedCartVersion);
+            }
+            throw new CartNotFoundException("Cart " + cartName + " was not found");
+        }
+        return cartVersion;
+    }
+
+    private static class BatchLine {
+        private final Long itemId;
+        private final int savedQuantity;
+        private int quantity;
+
+        private BatchLine(Long itemId, int quantity) {
+            this.itemId = itemId;
+            this.savedQuantity = quantity;
+            this.quantity = quantity;
+        }
     }
 }
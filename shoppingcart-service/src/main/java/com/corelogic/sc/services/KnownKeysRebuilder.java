@@ -0,0 +1,39 @@
+package com.corelogic.sc.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Builds the known keys filter once the application is up, then rebuilds it on a fixed delay. Rebuilding drops
+ * deleted keys, picks up keys written outside the service and resizes the filter as the tables grow. A failed
+ * rebuild leaves the previous filter in place.
+ */
+public class KnownKeysRebuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KnownKeysRebuilder.class);
+
+    private KnownKeysService knownKeysService;
+
+    public KnownKeysRebuilder(KnownKeysService knownKeysService) {
+        this.knownKeysService = knownKeysService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${known.keys.rebuild-interval-millis:600000}",
+            fixedDelayString = "${known.keys.rebuild-interval-millis:600000}")
+    public void rebuild() {
+        try {
+            knownKeysService.rebuild();
+        } catch (DataAccessException e) {
+            LOGGER.warn("Known keys filter rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.KnownKeysFilter.KnownKeys;
+import com.corelogic.sc.responses.KnownKeysStatisticsResponse;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds the known keys filter from the product and cart tables. The rebuild streams the keys in a read only
+ * transaction, which is what lets the Postgres driver fetch them in batches instead of all at once.
+ */
+@Service
+public class KnownKeysService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KnownKeysService.class);
+
+    private KnownKeysFilter knownKeysFilter;
+
+    private ProductRepository productRepository;
+
+    private CartRepository cartRepository;
+
+    private boolean enabled;
+
+    @Autowired
+    public KnownKeysService(KnownKeysFilter knownKeysFilter, ProductRepository productRepository, CartRepository cartRepository,
+                            @Value("${known.keys.enabled:false}") boolean enabled) {
+        this.knownKeysFilter = knownKeysFilter;
+        this.productRepository = productRepository;
+        this.cartRepository = cartRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Does nothing unless the filter is enabled: a filter that is never built lets every key through.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        rebuild(knownKeysFilter.skuNumbers(), productRepository.count(), productRepository::forEachSkuNumber);
+        rebuild(knownKeysFilter.cartNames(), cartRepository.count(), cartRepository::forEachCartName);
+        LOGGER.info("Rebuilt the known keys filter in {} ms", (System.nanoTime() - start) / 1000000);
+    }
+
+    public List<KnownKeysStatisticsResponse> statistics() {
+        return knownKeysFilter.statistics();
+    }
+
+    private static void rebuild(KnownKeys knownKeys, long keyCount, Consumer<Consumer<String>> forEachKey) {
+        knownKeys.startRebuild(keyCount);
+        try {
+            forEachKey.accept(knownKeys::putRebuilt);
+            knownKeys.completeRebuild();
+        } catch (RuntimeException e) {
+            knownKeys.abortRebuild();
+            throw e;
+        }
+    }
+}
@@ -10,7 +10,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ProductCategoryService {
@@ -21,27 +20,22 @@ public class ProductCategoryService {
         this.productCategoryRepository = productCategoryRepository;
     }
 
+    /**
+     * Lists categories with their product counts straight from a grouped projection, so no product rows are loaded
+     * no matter how large the catalog is.
+     */
     public List<ProductCategoryResponse> getProductCategories() {
-        List<ProductCategory> productCategories = productCategoryRepository.findAll();
-        return productCategories.stream().map(productCategory ->
-                ProductCategoryResponse
-                        .builder()
-                        .productCategoryName(productCategory.getProductCategoryName())
-                        .description(productCategory.getDescription())
-                        .build()).collect(Collectors.toList());
+        return productCategoryRepository.findProductCategoryResponses();
     }
 
     public ProductCategoryResponse getProductCategory(String productCategoryName) throws ProductCategoryNotFoundException {
-        ProductCategory productCategory = productCategoryRepository.findByProductCategoryName(productCategoryName);
+        ProductCategoryResponse productCategoryResponse =
+                productCategoryRepository.findProductCategoryResponseByProductCategoryName(productCategoryName);
 
-        if (productCategory == null) {
+        if (productCategoryResponse == null) {
             throw new ProductCategoryNotFoundException("Product Category " + productCategoryName + " was not found");
         }
-        return ProductCategoryResponse
-                .builder()
-                .productCategoryName(productCategory.getProductCategoryName())
-                .description(productCategory.getDescription())
-                .build();
+        return productCategoryResponse;
     }
 
     public ProductCategoryResponse addProductCategory(AddProductCategoryRequest addProductCategoryRequest) {
@@ -55,6 +49,7 @@ public class ProductCategoryService {
                 .builder()
                 .productCategoryName(productCategory.getProductCategoryName())
                 .description(productCategory.getDescription())
+                .productCount(0L)
                 .build();
     }
 }
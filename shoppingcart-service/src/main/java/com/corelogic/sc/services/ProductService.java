@@ -1,65 +1,183 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.ProductCatalogCache;
+import com.corelogic.sc.caches.ReadCoalescer;
 import com.corelogic.sc.entities.Product;
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddProductRequest;
 import com.corelogic.sc.requests.DeleteProductRequest;
+import com.corelogic.sc.requests.ProductLookupRequest;
+import com.corelogic.sc.responses.ProductLookupResponse;
+import com.corelogic.sc.responses.ProductLookupStatus;
 import com.corelogic.sc.responses.ProductResponse;
 import com.corelogic.sc.respositories.ProductCategoryRepository;
 import com.corelogic.sc.respositories.ProductRepository;
+import com.corelogic.sc.respositories.ProductRepository.InventoryCount;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private ProductCategoryRepository productCategoryRepository;
 
-    public ProductService(ProductRepository productRepository, ProductCategoryRepository productCategoryRepository) {
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private KnownKeysFilter knownKeysFilter;
+
+    public ProductService(ProductRepository productRepository,
+                          ProductCategoryRepository productCategoryRepository,
+                          ProductCatalogCache productCatalogCache,
+                          ReadCoalescer readCoalescer,
+                          KnownKeysFilter knownKeysFilter) {
         this.productRepository = productRepository;
         this.productCategoryRepository = productCategoryRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.readCoalescer = readCoalescer;
+        this.knownKeysFilter = knownKeysFilter;
     }
 
-    public List<ProductResponse> getProducts(String productCategoryName) {
-        List<Product> products = productRepository.findAll();
-        return products
+    /**
+     * Returns one page of a category's products ordered by sku#. Paging is keyset based: {@code after} is the last
+     * sku# of the previous page (null or empty for the first page), so deep pages cost the same as the first one.
+     * Product attributes come from the catalog cache when possible; inventory counts are always read live.
+     */
+    public List<ProductResponse> getProducts(String productCategoryName, String after, Integer limit) {
+        String afterSkuNumber = after == null ? "" : after;
+        int pageSize = pageSize(limit);
+
+        List<ProductResponse> cachedProducts = productCatalogCache.getCategoryPage(productCategoryName, afterSkuNumber, pageSize);
+        if (cachedProducts == null) {
+            List<ProductResponse> productResponses = productRepository.findProductResponsesByProductCategoryName(
+                    productCategoryName,
+                    afterSkuNumber,
+                    PageRequest.of(0, pageSize));
+            productCatalogCache.putCategoryPage(productCategoryName, afterSkuNumber, pageSize, productResponses);
+            return productResponses;
+        }
+        if (cachedProducts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> inventoryCounts = productRepository
+                .findInventoryCountsBySkuNumbers(cachedProducts
+                        .stream()
+                        .map(ProductResponse::getSkuNumber)
+                        .collect(Collectors.toList()))
                 .stream()
-                .filter(product -> product.getProductCategory().getProductCategoryName().equals(productCategoryName)).map(product ->
-                        ProductResponse
-                                .builder()
-                                .skuNumber(product.getSkuNumber())
-                                .productName(product.getProductName())
-                                .description(product.getDescription())
-                                .inventoryCount(product.getInventoryCount())
-                                .price(product.getPrice())
-                                .build()).collect(Collectors.toList());
+                .collect(Collectors.toMap(InventoryCount::getSkuNumber, InventoryCount::getInventoryCount));
+
+        List<ProductResponse> productResponses = new ArrayList<>(cachedProducts.size());
+        for (ProductResponse cachedProduct : cachedProducts) {
+            if (inventoryCounts.containsKey(cachedProduct.getSkuNumber())) {
+                productResponses.add(withInventoryCount(cachedProduct, inventoryCounts.get(cachedProduct.getSkuNumber())));
+            }
+        }
+        return productResponses;
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
+    /**
+     * Concurrent requests for the same sku# share one lookup, so a product drop costs one query per sku# in flight.
+     * A sku# the known keys filter rules out is answered without any.
+     */
     public ProductResponse getProductBySkuNumber(String skuNumber) throws ProductNotFoundException {
-        Product product = productRepository.findBySkuNumber(skuNumber);
-        if (product == null) {
+        if (!knownKeysFilter.mightContainSkuNumber(skuNumber)) {
+            throw ProductNotFoundException.withoutStackTrace("No product exists for sku# " + skuNumber);
+        }
+        ProductResponse productResponse = readCoalescer.products().execute(skuNumber, () -> findProduct(skuNumber));
+        if (productResponse == null) {
             throw new ProductNotFoundException("No product exists for sku# " + skuNumber);
         }
+        return productResponse;
+    }
 
-        return ProductResponse
-                .builder()
-                .skuNumber(product.getSkuNumber())
-                .productName(product.getProductName())
-                .description(product.getDescription())
-                .inventoryCount(product.getInventoryCount())
-                .price(product.getPrice())
-                .build();
+    private ProductResponse findProduct(String skuNumber) {
+        ProductResponse cachedProduct = productCatalogCache.getProduct(skuNumber);
+        if (cachedProduct != null) {
+            Integer inventoryCount = productRepository.findInventoryCountBySkuNumber(skuNumber);
+            if (inventoryCount != null) {
+                return withInventoryCount(cachedProduct, inventoryCount);
+            }
+            productCatalogCache.invalidateProduct(skuNumber, null);
+        }
+
+        // the live row rather than the entity, whose inventory count may be a second-level cache copy
+        ProductResponse productResponse = productRepository
+                .findProductResponsesBySkuNumbers(Collections.singletonList(skuNumber))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        if (productResponse != null) {
+            productCatalogCache.putProduct(productResponse);
+        }
+        return productResponse;
     }
 
+    /**
+     * Looks up many sku#s with one query. Results follow the request order, and sku#s without a product are
+     * reported inline as NOT_FOUND instead of failing the whole lookup. Sku#s the known keys filter rules out are
+     * left out of the query.
+     */
+    public List<ProductLookupResponse> lookupProducts(ProductLookupRequest productLookupRequest) {
+        List<String> skuNumbers = productLookupRequest.getSkuNumbers() == null
+                ? new ArrayList<>()
+                : productLookupRequest.getSkuNumbers();
+
+        Set<String> knownSkuNumbers = skuNumbers
+                .stream()
+                .filter(knownKeysFilter::mightContainSkuNumber)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, ProductResponse> productsBySkuNumber = productRepository
+                .findProductResponsesBySkuNumbers(knownSkuNumbers)
+                .stream()
+                .collect(Collectors.toMap(ProductResponse::getSkuNumber, productResponse -> productResponse));
+
+        return skuNumbers.stream().map(skuNumber -> {
+            ProductResponse productResponse = productsBySkuNumber.get(skuNumber);
+            return ProductLookupResponse
+                    .builder()
+                    .skuNumber(skuNumber)
+                    .status(productResponse == null ? ProductLookupStatus.NOT_FOUND : ProductLookupStatus.FOUND)
+                    .product(productResponse)
+                    .build();
+        }).collect(Collectors.toList());
+    }
+
+    @Transactional
     public ProductResponse addProduct(AddProductRequest addProductRequest) {
+        knownKeysFilter.putSkuNumber(addProductRequest.getSkuNumber());
         Product product = productRepository.save(Product
                 .builder()
                 .skuNumber(addProductRequest.getSkuNumber())
@@ -70,6 +188,7 @@ public class ProductService {
                 .productCategory(productCategoryRepository.findByProductCategoryName(addProductRequest.getProductCategoryName()))
                 .createdDate(LocalDateTime.now())
                 .build());
+        productCatalogCache.invalidateProduct(product.getSkuNumber(), addProductRequest.getProductCategoryName());
 
         return ProductResponse
                 .builder()
@@ -80,4 +199,15 @@ public class ProductService {
                 .price(product.getPrice())
                 .build();
     }
+
+    private static ProductResponse withInventoryCount(ProductResponse cachedProduct, Integer inventoryCount) {
+        return ProductResponse
+                .builder()
+                .skuNumber(cachedProduct.getSkuNumber())
+                .productName(cachedProduct.getProductName())
+                .description(cachedProduct.getDescription())
+                .inventoryCount(inventoryCount)
+                .price(cachedProduct.getPrice())
+                .build();
+    }
 }
@@ -0,0 +1,20 @@
+ALTER TABLE PRODUCT
+  ADD COLUMN UPDATED_DATE TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE PRODUCT SET UPDATED_DATE = CREATED_DATE WHERE CREATED_DATE IS NOT NULL;
+
+CREATE FUNCTION PRODUCT_SET_UPDATED_DATE() RETURNS TRIGGER AS $$
+BEGIN
+  NEW.UPDATED_DATE = CURRENT_TIMESTAMP;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER TRG_PRODUCT_UPDATED_DATE
+  BEFORE UPDATE ON PRODUCT
+  FOR EACH ROW
+  WHEN (OLD.* IS DISTINCT FROM NEW.*)
+  EXECUTE PROCEDURE PRODUCT_SET_UPDATED_DATE();
+
+CREATE INDEX IDX_PRODUCT_UPDATED_DATE_SKU_NUMBER
+  ON PRODUCT (UPDATED_DATE, SKU_NUMBER);
@@ -0,0 +1,11 @@
+-- Inventory reservations update INVENTORY_COUNT only, which no index covers, so they can be HOT updates as long as
+-- UPDATED_DATE (indexed) stays put. Stock is exported separately; list every other column here.
+DROP TRIGGER TRG_PRODUCT_UPDATED_DATE ON PRODUCT;
+
+CREATE TRIGGER TRG_PRODUCT_UPDATED_DATE
+  BEFORE UPDATE ON PRODUCT
+  FOR EACH ROW
+  WHEN ((OLD.SKU_NUMBER, OLD.PRODUCT_NAME, OLD.DESCRIPTION, OLD.PRICE, OLD.CREATED_DATE, OLD.PRODUCT_CATEGORY_NAME)
+        IS DISTINCT FROM
+        (NEW.SKU_NUMBER, NEW.PRODUCT_NAME, NEW.DESCRIPTION, NEW.PRICE, NEW.CREATED_DATE, NEW.PRODUCT_CATEGORY_NAME))
+  EXECUTE PROCEDURE PRODUCT_SET_UPDATED_DATE();
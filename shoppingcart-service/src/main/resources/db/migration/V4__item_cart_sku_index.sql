@@ -0,0 +1,2 @@
+CREATE INDEX IDX_ITEM_CART_NAME_SKU_NUMBER
+  ON ITEM (CART_NAME, SKU_NUMBER);
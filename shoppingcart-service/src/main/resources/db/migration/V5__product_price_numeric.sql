@@ -0,0 +1,2 @@
+ALTER TABLE PRODUCT
+  ALTER COLUMN PRICE TYPE NUMERIC(12, 2) USING ROUND(PRICE::NUMERIC, 2);
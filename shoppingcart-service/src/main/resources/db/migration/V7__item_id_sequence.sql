@@ -0,0 +1,11 @@
+ALTER TABLE ITEM
+  ALTER COLUMN ITEM_ID DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE ITEM_ID_SEQ START WITH 50 INCREMENT BY 50;
+
+SELECT setval('ITEM_ID_SEQ', COALESCE(MAX(ITEM_ID), 0) + 50, false) FROM ITEM;
+
+ALTER SEQUENCE ITEM_ID_SEQ OWNED BY ITEM.ITEM_ID;
+
+ALTER TABLE ITEM
+  ALTER COLUMN ITEM_ID SET DEFAULT nextval('ITEM_ID_SEQ');
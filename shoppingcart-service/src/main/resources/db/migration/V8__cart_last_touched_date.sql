@@ -0,0 +1,7 @@
+ALTER TABLE CART
+  ADD COLUMN LAST_TOUCHED_DATE TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE CART SET LAST_TOUCHED_DATE = CREATED_DATE WHERE CREATED_DATE IS NOT NULL;
+
+CREATE INDEX IDX_CART_STATUS_LAST_TOUCHED_DATE
+  ON CART (STATUS, LAST_TOUCHED_DATE);
@@ -0,0 +1,36 @@
+package com.corelogic.sc.caches;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void mightContain_everyPutKey_isTrue() {
+        BloomFilter subject = new BloomFilter(10000, 0.01);
+        for (int index = 0; index < 10000; index++) {
+            subject.put("SKU" + index);
+        }
+
+        for (int index = 0; index < 10000; index++) {
+            assertTrue(subject.mightContain("SKU" + index));
+        }
+    }
+
+    @Test
+    public void mightContain_keysNeverPut_falsePositiveRateStaysNearTarget() {
+        BloomFilter subject = new BloomFilter(10000, 0.01);
+        for (int index = 0; index < 10000; index++) {
+            subject.put("SKU" + index);
+        }
+
+        int falsePositives = 0;
+        for (int index = 0; index < 100000; index++) {
+            if (subject.mightContain("UNKNOWN" + index)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+    }
+}
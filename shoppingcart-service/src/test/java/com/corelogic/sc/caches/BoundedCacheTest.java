@@ -0,0 +1,78 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedCacheTest {
+
+    private BoundedCache<String, String> subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new BoundedCache<>("test", 2);
+    }
+
+    @Test
+    public void put_beyondCapacity_evictsLeastRecentlyUsedEntry() {
+        subject.put("a", "1");
+        subject.put("b", "2");
+        subject.get("a");
+        subject.put("c", "3");
+
+        assertEquals("1", subject.get("a"));
+        assertNull(subject.get("b"));
+        assertEquals("3", subject.get("c"));
+        assertEquals(Long.valueOf(1), subject.statistics().getEvictions());
+    }
+
+    @Test
+    public void get_countsHitsAndMisses() {
+        subject.put("a", "1");
+
+        subject.get("a");
+        subject.get("a");
+        subject.get("b");
+
+        CacheStatisticsResponse statistics = subject.statistics();
+        assertEquals(Long.valueOf(2), statistics.getHits());
+        assertEquals(Long.valueOf(1), statistics.getMisses());
+        assertEquals(Integer.valueOf(1), statistics.getSize());
+    }
+
+    @Test
+    public void invalidateIf_removesMatchingKeysOnly() {
+        subject.put("a", "1");
+        subject.put("b", "2");
+
+        subject.invalidateIf(key -> key.equals("a"));
+
+        assertNull(subject.get("a"));
+        assertEquals("2", subject.get("b"));
+    }
+
+    @Test
+    public void get_afterTtl_expiresEntry() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+        BoundedCache<String, String> expiringSubject = new BoundedCache<>("test", 2, 500, clock);
+        expiringSubject.put("a", "1");
+
+        when(clock.millis()).thenReturn(1499L);
+        assertEquals("1", expiringSubject.get("a"));
+
+        when(clock.millis()).thenReturn(1500L);
+        assertNull(expiringSubject.get("a"));
+
+        CacheStatisticsResponse statistics = expiringSubject.statistics();
+        assertEquals(Long.valueOf(1), statistics.getExpirations());
+        assertEquals(Integer.valueOf(0), statistics.getSize());
+    }
+}
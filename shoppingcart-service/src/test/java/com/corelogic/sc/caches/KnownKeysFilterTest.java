@@ -0,0 +1,59 @@
+package com.corelogic.sc.caches;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KnownKeysFilterTest {
+
+    private KnownKeysFilter subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new KnownKeysFilter(0.001, 100);
+    }
+
+    @Test
+    public void mightContainSkuNumber_beforeFirstRebuild_letsEveryKeyThrough() {
+        assertTrue(subject.mightContainSkuNumber("anything"));
+    }
+
+    @Test
+    public void mightContainSkuNumber_afterRebuild_rulesOutUnknownKeys() {
+        subject.skuNumbers().startRebuild(2);
+        subject.skuNumbers().putRebuilt("sku1");
+        subject.skuNumbers().putRebuilt("sku2");
+        subject.skuNumbers().completeRebuild();
+
+        assertTrue(subject.mightContainSkuNumber("sku1"));
+        assertTrue(subject.mightContainSkuNumber("sku2"));
+        assertFalse(subject.mightContainSkuNumber("sku3"));
+        assertEquals(Long.valueOf(1), subject.statistics().get(0).getDefiniteMisses());
+    }
+
+    @Test
+    public void putSkuNumber_duringRebuild_isInTheRebuiltFilter() {
+        subject.skuNumbers().startRebuild(1);
+        subject.skuNumbers().putRebuilt("sku1");
+        subject.putSkuNumber("sku2");
+        subject.skuNumbers().completeRebuild();
+
+        assertTrue(subject.mightContainSkuNumber("sku2"));
+    }
+
+    @Test
+    public void abortRebuild_keepsThePreviousFilter() {
+        subject.cartNames().startRebuild(1);
+        subject.cartNames().putRebuilt("cart1");
+        subject.cartNames().completeRebuild();
+
+        subject.cartNames().startRebuild(1);
+        subject.cartNames().abortRebuild();
+
+        assertTrue(subject.mightContainCartName("cart1"));
+        assertFalse(subject.mightContainCartName("cart2"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.ProductResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProductCatalogCacheTest {
+
+    private ProductCatalogCache subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new ProductCatalogCache(100, 100, 60000);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void invalidateProduct_inTransaction_invalidatesAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        subject.putCategoryPage("Electronics", "", 100, Collections.singletonList(productResponse("sku1")));
+
+        subject.invalidateProduct("sku2", "Electronics");
+        assertNull(subject.getCategoryPage("Electronics", "", 100));
+
+        // a concurrent read caches the page as it was before the commit
+        subject.putCategoryPage("Electronics", "", 100, Collections.singletonList(productResponse("sku1")));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCommit();
+
+        assertNull(subject.getCategoryPage("Electronics", "", 100));
+    }
+
+    @Test
+    public void putCategoryPage_dropsInventoryCount() {
+        subject.putCategoryPage("Electronics", "", 100, Collections.singletonList(productResponse("sku1")));
+
+        assertNull(subject.getCategoryPage("Electronics", "", 100).get(0).getInventoryCount());
+    }
+
+    private static ProductResponse productResponse(String skuNumber) {
+        return ProductResponse
+                .builder()
+                .skuNumber(skuNumber)
+                .productName("product " + skuNumber)
+                .description("description " + skuNumber)
+                .inventoryCount(7)
+                .price(new BigDecimal("199.99"))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.entities.Product;
+import com.corelogic.sc.responses.CacheStatisticsResponse;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class})
+public class SecondLevelCacheTest {
+
+    @Mock
+    private EntityManagerFactory mockEntityManagerFactory;
+
+    @Mock
+    private SessionFactory mockSessionFactory;
+
+    @Mock
+    private Cache mockCache;
+
+    @Mock
+    private Statistics mockStatistics;
+
+    private SecondLevelCache subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(mockEntityManagerFactory.unwrap(SessionFactory.class)).thenReturn(mockSessionFactory);
+        when(mockSessionFactory.getCache()).thenReturn(mockCache);
+        when(mockSessionFactory.getStatistics()).thenReturn(mockStatistics);
+        subject = new SecondLevelCache(mockEntityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void evictProducts_outsideTransaction_evictsOnce() {
+        subject.evictProducts(Arrays.asList("sku1", "sku2"));
+
+        verify(mockCache).evictEntityData(Product.class, "sku1");
+        verify(mockCache).evictEntityData(Product.class, "sku2");
+        verifyNoMoreInteractions(mockCache);
+    }
+
+    @Test
+    public void evictProducts_inTransaction_evictsAgainAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        subject.evictProducts(Collections.singletonList("sku1"));
+        verify(mockCache, times(1)).evictEntityData(Product.class, "sku1");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(mockCache, times(2)).evictEntityData(Product.class, "sku1");
+    }
+
+    @Test
+    public void evictProducts_noSkuNumbers_doesNothing() {
+        subject.evictProducts(Collections.emptyList());
+
+        verifyNoMoreInteractions(mockCache);
+    }
+
+    @Test
+    public void evictAll_evictsEveryRegion() {
+        subject.evictAll();
+
+        verify(mockCache).evictAllRegions();
+    }
+
+    @Test
+    public void statistics_reportsHitsAndMissesPerRegion() {
+        CacheRegionStatistics productRegionStatistics = mock(CacheRegionStatistics.class);
+        when(productRegionStatistics.getHitCount()).thenReturn(5L);
+        when(productRegionStatistics.getMissCount()).thenReturn(2L);
+        when(productRegionStatistics.getElementCountInMemory()).thenReturn(Long.MIN_VALUE);
+        when(mockStatistics.getCacheRegionStatistics(anyString())).thenReturn(null);
+        when(mockStatistics.getCacheRegionStatistics(SecondLevelCache.PRODUCT_REGION)).thenReturn(productRegionStatistics);
+
+        List<CacheStatisticsResponse> actual = subject.statistics();
+
+        assertEquals(1, actual.size());
+        assertEquals(SecondLevelCache.PRODUCT_REGION, actual.get(0).getName());
+        assertEquals(Long.valueOf(5), actual.get(0).getHits());
+        assertEquals(Long.valueOf(2), actual.get(0).getMisses());
+        assertNull(actual.get(0).getSize());
+    }
+}
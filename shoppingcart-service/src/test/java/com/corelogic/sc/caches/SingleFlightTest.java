@@ -0,0 +1,140 @@
+package com.corelogic.sc.caches;
+
+import com.corelogic.sc.responses.SingleFlightStatisticsResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void execute_concurrentCallersForOneKey_shareOneLookup() throws Exception {
+        SingleFlight<String, String> subject = new SingleFlight<>("test", 10000);
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> subject.execute("sku1", () -> {
+            lookups.incrementAndGet();
+            lookupStarted.countDown();
+            await(releaseLookup);
+            return "product1";
+        }));
+        assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int caller = 1; caller < CALLERS; caller++) {
+            followers.add(executor.submit(() -> subject.execute("sku1", () -> {
+                lookups.incrementAndGet();
+                return "product1 again";
+            })));
+        }
+        waitForCoalesced(subject, CALLERS - 1);
+        releaseLookup.countDown();
+
+        assertEquals("product1", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("product1", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, lookups.get());
+        SingleFlightStatisticsResponse statistics = subject.statistics();
+        assertEquals(Long.valueOf(1), statistics.getLookups());
+        assertEquals(Long.valueOf(CALLERS - 1), statistics.getCoalesced());
+        assertEquals(Integer.valueOf(0), statistics.getInFlight());
+    }
+
+    @Test
+    public void execute_afterLookupFinished_looksUpAgain() {
+        SingleFlight<String, String> subject = new SingleFlight<>("test", 10000);
+        AtomicInteger lookups = new AtomicInteger();
+
+        subject.execute("sku1", () -> "product" + lookups.incrementAndGet());
+        String actual = subject.execute("sku1", () -> "product" + lookups.incrementAndGet());
+
+        assertEquals("product2", actual);
+    }
+
+    @Test
+    public void execute_lookupFails_followersGetTheSameException() throws Exception {
+        SingleFlight<String, String> subject = new SingleFlight<>("test", 10000);
+        IllegalStateException failure = new IllegalStateException("database down");
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> subject.execute("sku1", () -> {
+            lookupStarted.countDown();
+            await(releaseLookup);
+            throw failure;
+        }));
+        assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> subject.execute("sku1", () -> "never looked up"));
+        waitForCoalesced(subject, 1);
+        releaseLookup.countDown();
+
+        ExecutionException leaderException = Assertions.assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerException = Assertions.assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderException.getCause());
+        assertSame(failure, followerException.getCause());
+    }
+
+    @Test
+    public void execute_lookupExceedsDeadline_followerTakesOver() throws Exception {
+        SingleFlight<String, String> subject = new SingleFlight<>("test", 50);
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> subject.execute("sku1", () -> {
+            lookupStarted.countDown();
+            await(releaseLookup);
+            return "stalled";
+        }));
+        assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+
+        String actual = subject.execute("sku1", () -> "fresh");
+        releaseLookup.countDown();
+
+        assertEquals("fresh", actual);
+        assertEquals("stalled", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(Long.valueOf(1), subject.statistics().getDeadlineExpirations());
+        assertEquals(Long.valueOf(2), subject.statistics().getLookups());
+    }
+
+    private static void waitForCoalesced(SingleFlight<String, String> subject, long coalesced) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subject.statistics().getCoalesced() < coalesced && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Long.valueOf(coalesced), subject.statistics().getCoalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.corelogic.sc.capture;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RingBufferTest {
+
+    @Test
+    public void offer_whenFull_returnsFalseUntilPolled() {
+        RingBuffer<String> subject = new RingBuffer<>(2);
+
+        assertTrue(subject.offer("a"));
+        assertTrue(subject.offer("b"));
+        assertFalse(subject.offer("c"));
+
+        assertEquals("a", subject.poll());
+        assertTrue(subject.offer("c"));
+        assertEquals("b", subject.poll());
+        assertEquals("c", subject.poll());
+        assertNull(subject.poll());
+    }
+
+    @Test
+    public void constructor_capacityNotPowerOfTwo_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(3));
+    }
+
+    @Test
+    public void offer_concurrentProducers_deliversEveryElementOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 50000;
+        RingBuffer<Integer> subject = new RingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                int first = producer * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int value = first; value < first + perProducer; value++) {
+                        while (!subject.offer(value)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> received = new HashSet<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+                Integer value = subject.poll();
+                if (value != null) {
+                    assertTrue(received.add(value));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(producers * perProducer, received.size());
+            assertNull(subject.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
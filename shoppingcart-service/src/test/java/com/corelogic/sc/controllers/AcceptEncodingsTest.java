@@ -0,0 +1,38 @@
+package com.corelogic.sc.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AcceptEncodingsTest {
+
+    @Test
+    public void acceptsGzip_whenListed() {
+        assertTrue(AcceptEncodings.acceptsGzip("gzip, deflate"));
+        assertTrue(AcceptEncodings.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+        assertTrue(AcceptEncodings.acceptsGzip("x-gzip"));
+    }
+
+    @Test
+    public void acceptsGzip_withQualityZero_refusesIt() {
+        assertFalse(AcceptEncodings.acceptsGzip("gzip;q=0"));
+        assertFalse(AcceptEncodings.acceptsGzip("identity, gzip ; q=0.000"));
+        assertFalse(AcceptEncodings.acceptsGzip("*, gzip;q=0"));
+    }
+
+    @Test
+    public void acceptsGzip_throughWildcard_unlessGzipIsListed() {
+        assertTrue(AcceptEncodings.acceptsGzip("*"));
+        assertFalse(AcceptEncodings.acceptsGzip("*;q=0"));
+        assertTrue(AcceptEncodings.acceptsGzip("*;q=0, gzip"));
+    }
+
+    @Test
+    public void acceptsGzip_withoutGzipOrWildcard_refusesIt() {
+        assertFalse(AcceptEncodings.acceptsGzip(null));
+        assertFalse(AcceptEncodings.acceptsGzip(""));
+        assertFalse(AcceptEncodings.acceptsGzip("deflate, br"));
+        assertFalse(AcceptEncodings.acceptsGzip("gzipped"));
+    }
+}
@@ -4,6 +4,7 @@ import com.corelogic.sc.ShoppingCartServiceApplication;
 import com.corelogic.sc.configurations.ShoppingCartServicesConfiguration;
 import com.corelogic.sc.requests.AddCartRequest;
 import com.corelogic.sc.requests.DeleteCartRequest;
+import com.corelogic.sc.utils.QueryBudget;
 import com.corelogic.sc.utils.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.Rollback;
@@ -28,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -52,6 +55,8 @@ public class CartControllerAcceptanceTest {
                 null,
                 new ParameterizedTypeReference<Void>() {
                 });
+        mockMvc.perform(delete("/api/admin/caches"))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -125,6 +130,58 @@ public class CartControllerAcceptanceTest {
                 .andExpect(content().json(TestUtils.readFixture("responses/cart-notfound.json"), true));
     }
 
+    @Test
+    public void cartSummary_totalsItemsInCart() throws Exception {
+        mockMvc.perform(get("/api/carts/cart/MyFirstCart/summary"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/cart-summary.json"), true))
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    public void cartSummary_invalidCartName_throwsCartNotFoundException() throws Exception {
+        mockMvc.perform(get("/api/carts/cart/InvalidCart/summary"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(TestUtils.readFixture("responses/cart-notfound.json"), true))
+                .andExpect(QueryBudget.statements(0));
+    }
+
+    @Test
+    public void cart_retrieveCartByName_ifNoneMatchCurrentETag_returnsNotModifiedWithOneStatement() throws Exception {
+        String eTag = mockMvc.perform(get("/api/carts/cart/MyFirstCart"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/carts/cart/MyFirstCart")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    public void cart_deleteCartByName_ifMatchStaleETag_returnsPreconditionFailed() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(DeleteCartRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .build());
+
+        mockMvc.perform(delete("/api/carts/cart")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"999\"")
+                .content(jsonPayload))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().json(TestUtils.readFixture("responses/cart-version-mismatch.json"), true));
+
+        mockMvc.perform(get("/api/carts/cart/MyFirstCart"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void cart_deleteCartByName_deletesCart_removesItemsInCart() throws Exception {
         String jsonPayload =
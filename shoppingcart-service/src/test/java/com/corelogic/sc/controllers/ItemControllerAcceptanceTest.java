@@ -3,7 +3,11 @@ package com.corelogic.sc.controllers;
 import com.corelogic.sc.ShoppingCartServiceApplication;
 import com.corelogic.sc.configurations.ShoppingCartServicesConfiguration;
 import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.BatchItemRequest;
+import com.corelogic.sc.requests.ItemOperation;
+import com.corelogic.sc.requests.ItemOperationRequest;
 import com.corelogic.sc.requests.RemoveItemFromCartRequest;
+import com.corelogic.sc.utils.QueryBudget;
 import com.corelogic.sc.utils.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,17 +18,28 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -49,6 +64,8 @@ public class ItemControllerAcceptanceTest {
                 null,
                 new ParameterizedTypeReference<Void>() {
                 });
+        mockMvc.perform(delete("/api/admin/caches"))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -128,6 +145,27 @@ public class ItemControllerAcceptanceTest {
                 .andExpect(content().json(TestUtils.readFixture("responses/product-sku-notfound.json")));
     }
 
+    @Test
+    public void item_addsToSkuNumberAlreadyInCart_mergesIntoExistingLine() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(AddItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .skuNumber("IPAD10")
+                        .quantity(2)
+                        .build());
+
+        mockMvc.perform(post("/api/items/item")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonPayload))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/items-by-cartname-merged.json"), true));
+    }
+
     @Test
     public void items_retrieveItemsByCartName() throws Exception {
         mockMvc.perform(get("/api/items/MyFirstCart"))
@@ -136,6 +174,87 @@ public class ItemControllerAcceptanceTest {
                 .andExpect(content().json(TestUtils.readFixture("responses/items-by-cartname.json"), true));
     }
 
+    @Test
+    public void items_retrieveItemsByCartName_issuesOneStatementRegardlessOfLineCount() throws Exception {
+        mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    public void items_retrieveItemsByCartName_ifNoneMatchCurrentETag_returnsNotModifiedWithOneStatement() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/items/MyFirstCart")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""))
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    public void item_createsItem_ifMatchCurrentETag_changesETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(AddItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .skuNumber("IPHONE8S")
+                        .quantity(2)
+                        .build());
+
+        String changedETag = mockMvc.perform(post("/api/items/item")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/item-add.json")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, changedETag);
+
+        mockMvc.perform(get("/api/items/MyFirstCart")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, changedETag));
+    }
+
+    @Test
+    public void item_createsItem_ifMatchStaleETag_returnsPreconditionFailed() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(AddItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .skuNumber("IPHONE8S")
+                        .quantity(2)
+                        .build());
+
+        mockMvc.perform(post("/api/items/item")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"999\"")
+                .content(jsonPayload))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().json(TestUtils.readFixture("responses/cart-version-mismatch.json"), true));
+
+        mockMvc.perform(get("/api/products/product/IPHONE8S")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/product-by-sku.json")));
+    }
+
     @Test
     public void item_removesItemFromCart_incrementsProductInventoryCount() throws Exception {
         String jsonPayload =
@@ -184,4 +303,202 @@ public class ItemControllerAcceptanceTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().json(TestUtils.readFixture("responses/cart-notfound.json"), true));
     }
+
+    @Test
+    public void items_appliesBatchOfOperations_adjustsProductInventoryCounts() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Arrays.asList(
+                                ItemOperationRequest
+                                        .builder()
+                                        .operation(ItemOperation.ADD)
+                                        .skuNumber("IPHONE8S")
+                                        .quantity(2)
+                                        .build(),
+                                ItemOperationRequest
+                                        .builder()
+                                        .operation(ItemOperation.REMOVE)
+                                        .skuNumber("IPAD10")
+                                        .quantity(1)
+                                        .build()))
+                        .build());
+
+        mockMvc.perform(post("/api/items/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/items-batch.json"), true));
+
+        mockMvc.perform(get("/api/products/product/IPHONE8S")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/product-by-sku-inventorychange.json")));
+
+        mockMvc.perform(get("/api/products/product/IPAD10")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/product-by-sku-item-remove.json")));
+    }
+
+    @Test
+    public void items_batchWithoutOperations_keepsETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .build());
+
+        mockMvc.perform(post("/api/items/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().json("[]", true));
+
+        mockMvc.perform(get("/api/items/MyFirstCart")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void items_batchWithInsufficientProductInventoryCount_rollsBackEveryOperation() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Arrays.asList(
+                                ItemOperationRequest
+                                        .builder()
+                                        .operation(ItemOperation.ADD)
+                                        .skuNumber("IPHONE8S")
+                                        .quantity(2)
+                                        .build(),
+                                ItemOperationRequest
+                                        .builder()
+                                        .operation(ItemOperation.ADD)
+                                        .skuNumber("IPHONE9S")
+                                        .quantity(1000)
+                                        .build()))
+                        .build());
+
+        mockMvc.perform(post("/api/items/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonPayload))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(TestUtils.readFixture("responses/insufficient-product-inventory-batch.json")));
+
+        mockMvc.perform(get("/api/products/product/IPHONE8S")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/product-by-sku.json")));
+
+        mockMvc.perform(get("/api/items/MyFirstCart"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/items-by-cartname.json"), true));
+    }
+
+    @Test
+    public void events_pushesItemChangesOnceCommitted() throws Exception {
+        long version = cartVersion("MyFirstCart");
+        MvcResult events = mockMvc.perform(get("/api/items/MyFirstCart/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        addItem("MyFirstCart", "IPHONE8S", 2);
+
+        String body = awaitEvent(events, "id:" + (version + 1));
+        assertTrue(body.contains("event:cart-changed"));
+        assertTrue(body.contains("\"type\":\"ITEM_ADDED\""));
+        assertTrue(body.contains("\"skuNumber\":\"IPHONE8S\""));
+    }
+
+    @Test
+    public void events_withLastEventId_replaysMissedChanges() throws Exception {
+        long version = cartVersion("MyFirstCart");
+        MvcResult firstSubscription = mockMvc.perform(get("/api/items/MyFirstCart/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        addItem("MyFirstCart", "IPHONE8S", 1);
+        addItem("MyFirstCart", "IPHONE9S", 1);
+        awaitEvent(firstSubscription, "id:" + (version + 2));
+
+        MvcResult resumed = mockMvc.perform(get("/api/items/MyFirstCart/events")
+                .header("Last-Event-ID", version + 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = resumed.getResponse().getContentAsString();
+        assertFalse(body.contains("id:" + (version + 1)));
+        assertTrue(body.contains("id:" + (version + 2)));
+        assertTrue(body.contains("\"skuNumber\":\"IPHONE9S\""));
+    }
+
+    @Test
+    public void events_withLastEventIdNoLongerKept_sendsResync() throws Exception {
+        long version = cartVersion("MyFirstCart");
+        addItem("MyFirstCart", "IPHONE8S", 1);
+
+        MvcResult resumed = mockMvc.perform(get("/api/items/MyFirstCart/events")
+                .param("lastEventId", String.valueOf(version)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = resumed.getResponse().getContentAsString();
+        assertTrue(body.contains("event:resync"));
+        assertTrue(body.contains("id:" + (version + 1)));
+    }
+
+    @Test
+    public void events_forInvalidCartName_throwsCartNotFoundException() throws Exception {
+        mockMvc.perform(get("/api/items/InvalidCart/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(TestUtils.readFixture("responses/cart-notfound.json"), true));
+    }
+
+    private long cartVersion(String cartName) throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/" + cartName))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        return Long.parseLong(eTag.replace("\"", ""));
+    }
+
+    private void addItem(String cartName, String skuNumber, int quantity) throws Exception {
+        mockMvc.perform(post("/api/items/item")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(AddItemRequest
+                        .builder()
+                        .cartName(cartName)
+                        .skuNumber(skuNumber)
+                        .quantity(quantity)
+                        .build())))
+                .andExpect(status().isOk());
+    }
+
+    // events are sent by the dispatch pool, shortly after the change commits
+    private static String awaitEvent(MvcResult events, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = events.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = events.getResponse().getContentAsString();
+        }
+        assertTrue("Expected " + expected + " in " + body, body.contains(expected));
+        return body;
+    }
 }
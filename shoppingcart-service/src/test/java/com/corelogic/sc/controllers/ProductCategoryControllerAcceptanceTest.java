@@ -4,6 +4,7 @@ import com.corelogic.sc.ShoppingCartServiceApplication;
 import com.corelogic.sc.configurations.ShoppingCartServicesConfiguration;
 import com.corelogic.sc.requests.AddProductCategoryRequest;
 import com.corelogic.sc.utils.TestUtils;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,16 +14,31 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -47,6 +63,8 @@ public class ProductCategoryControllerAcceptanceTest {
                 null,
                 new ParameterizedTypeReference<Void>() {
                 });
+        mockMvc.perform(delete("/api/admin/caches"))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -89,4 +107,98 @@ public class ProductCategoryControllerAcceptanceTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().json(TestUtils.readFixture("responses/product-category-notfound.json")));
     }
+
+    @Test
+    public void export_streamsEveryProductAsOneJsonLineInSkuNumberOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/productCatalog/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        List<JsonNode> products = readLines(body);
+
+        assertTrue(body.endsWith("\n"));
+        assertEquals(Arrays.asList("IPAD10", "IPHONE8S", "IPHONE9S", "TOROMOWER567"), skuNumbers(products));
+        JsonNode ipad = products.get(0);
+        assertEquals("iPad 10", ipad.get("productName").asText());
+        assertEquals(150, ipad.get("inventoryCount").asInt());
+        assertEquals("Electronics", ipad.get("productCategoryName").asText());
+        assertTrue(ipad.hasNonNull("updatedDate"));
+    }
+
+    @Test
+    public void export_whenGzipAccepted_compressesTheStream() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/productCatalog/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            byte[] buffer = new byte[8192];
+            for (int read = gzipInputStream.read(buffer); read != -1; read = gzipInputStream.read(buffer)) {
+                body.write(buffer, 0, read);
+            }
+        }
+
+        assertEquals(Arrays.asList("IPAD10", "IPHONE8S", "IPHONE9S", "TOROMOWER567"),
+                skuNumbers(readLines(new String(body.toByteArray(), StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void export_whenGzipRefused_sendsThePlainStream() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/productCatalog/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        assertEquals(Arrays.asList("IPAD10", "IPHONE8S", "IPHONE9S", "TOROMOWER567"),
+                skuNumbers(readLines(result.getResponse().getContentAsString())));
+    }
+
+    @Test
+    public void export_withUpdatedSince_streamsOnlyProductsUpdatedSince() throws Exception {
+        String updatedSince = LocalDateTime.now().plusDays(1).toString();
+
+        MvcResult result = mockMvc.perform(get("/api/productCatalog/export")
+                .param("updatedSince", updatedSince))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals("", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void exportInventory_streamsEverySkuNumberWithItsInventoryCount() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/productCatalog/export/inventory"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        List<JsonNode> inventoryCounts = readLines(result.getResponse().getContentAsString());
+
+        assertEquals(Arrays.asList("IPAD10", "IPHONE8S", "IPHONE9S", "TOROMOWER567"), skuNumbers(inventoryCounts));
+        assertEquals(150, inventoryCounts.get(0).get("inventoryCount").asInt());
+        assertEquals(2, inventoryCounts.get(0).size());
+    }
+
+    private static List<JsonNode> readLines(String body) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<String> skuNumbers(List<JsonNode> products) {
+        List<String> skuNumbers = new ArrayList<>();
+        for (JsonNode product : products) {
+            skuNumbers.add(product.get("skuNumber").asText());
+        }
+        return skuNumbers;
+    }
 }
@@ -3,7 +3,9 @@ package com.corelogic.sc.controllers;
 import com.corelogic.sc.ShoppingCartServiceApplication;
 import com.corelogic.sc.configurations.ShoppingCartServicesConfiguration;
 import com.corelogic.sc.requests.AddProductRequest;
+import com.corelogic.sc.requests.ProductLookupRequest;
 import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.utils.QueryBudget;
 import com.corelogic.sc.utils.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +23,10 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.RestTemplate;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -49,6 +55,8 @@ public class ProductControllerAcceptanceTest {
                 null,
                 new ParameterizedTypeReference<Void>() {
                 });
+        mockMvc.perform(delete("/api/admin/caches"))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -59,6 +67,16 @@ public class ProductControllerAcceptanceTest {
                 .andExpect(content().json(TestUtils.readFixture("responses/products-by-category.json")));
     }
 
+    @Test
+    public void products_retrievesProductsByCategoryName_afterSkuNumber_retrievesNextPage() throws Exception {
+        mockMvc.perform(get("/api/products/Electronics")
+                .param("after", "IPAD10")
+                .param("limit", "1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/products-by-category-page.json"), true));
+    }
+
     @Test
     public void product_retrieveProductBySkuNumber() throws Exception {
         mockMvc.perform(get("/api/products/product/IPHONE8S")
@@ -72,7 +90,8 @@ public class ProductControllerAcceptanceTest {
         mockMvc.perform(get("/api/products/product/INVALIDSKU"))
                 .andDo(print())
                 .andExpect(status().isBadRequest())
-                .andExpect(content().json(TestUtils.readFixture("responses/product-sku-notfound.json"), true));
+                .andExpect(content().json(TestUtils.readFixture("responses/product-sku-notfound.json"), true))
+                .andExpect(QueryBudget.statements(0));
     }
 
     @Test
@@ -84,7 +103,7 @@ public class ProductControllerAcceptanceTest {
                         .productName("Galaxy 5S")
                         .description("Galaxy 5S")
                         .inventoryCount(100)
-                        .price(799.99)
+                        .price(new BigDecimal("799.99"))
                         .productCategoryName("Electronics")
                         .build());
 
@@ -95,4 +114,21 @@ public class ProductControllerAcceptanceTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(TestUtils.readFixture("responses/product-add.json")));
     }
+
+    @Test
+    public void lookup_retrievesProductsInRequestOrder_reportsMissingSkuNumbers() throws Exception {
+        String jsonPayload =
+                new ObjectMapper().writeValueAsString(ProductLookupRequest
+                        .builder()
+                        .skuNumbers(Arrays.asList("IPAD10", "InvalidSKUNumber", "IPHONE8S"))
+                        .build());
+
+        mockMvc.perform(post("/api/products/lookup")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(content().json(TestUtils.readFixture("responses/products-lookup.json"), true))
+                .andExpect(QueryBudget.statements(1));
+    }
 }
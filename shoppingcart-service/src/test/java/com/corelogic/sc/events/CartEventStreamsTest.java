@@ -0,0 +1,212 @@
+package com.corelogic.sc.events;
+
+import com.corelogic.sc.respositories.CartRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class})
+public class CartEventStreamsTest {
+
+    private static final int SUBSCRIBER_QUEUE_SIZE = 2;
+
+    @Mock
+    private CartRepository mockCartRepository;
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private volatile CountDownLatch slowClient;
+
+    private CartEventStreams subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new CartEventStreams(mockCartRepository, new ObjectMapper(), 60000, 64, 60000, 2, 2,
+                SUBSCRIBER_QUEUE_SIZE) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter(slowClient);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        subject.close();
+    }
+
+    @Test
+    public void heartbeat_cartChangedThroughAnotherNode_sendsResync() throws Exception {
+        subject.subscribe("MyFirstCart", 3, null);
+        RecordingEmitter emitter = emitters.get(0);
+        assertTrue(emitter.next().startsWith(":subscribed"));
+        when(mockCartRepository.findVersionsByCartNames(any())).thenReturn(Collections.singletonMap("MyFirstCart", 5L));
+
+        subject.heartbeat();
+
+        String resync = emitter.next();
+        assertTrue(resync.startsWith("id:5\nevent:" + CartEventStreams.RESYNC + "\n"));
+        assertEquals(Long.valueOf(1), subject.statistics().getResyncs());
+    }
+
+    @Test
+    public void heartbeat_cartGone_closesTheStream() throws Exception {
+        subject.subscribe("MyFirstCart", 3, null);
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.next();
+        when(mockCartRepository.findVersionsByCartNames(any())).thenReturn(Collections.emptyMap());
+
+        subject.heartbeat();
+
+        assertTrue(emitter.next().contains("CART_DELETED"));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(0), subject.statistics().getStreams());
+        assertEquals(Integer.valueOf(0), subject.statistics().getSubscribers());
+    }
+
+    @Test
+    public void cartsExpired_closesTheirStreams() throws Exception {
+        subject.subscribe("MyFirstCart", 3, null);
+        subject.subscribe("MySecondCart", 1, null);
+        RecordingEmitter expired = emitters.get(0);
+        RecordingEmitter kept = emitters.get(1);
+        expired.next();
+        kept.next();
+
+        subject.cartsExpired(CartsExpiredEvent.builder().cartNames(Collections.singletonList("MyFirstCart")).build());
+
+        assertTrue(expired.next().contains("CART_DELETED"));
+        assertTrue(expired.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, kept.completed.getCount());
+        assertEquals(Integer.valueOf(1), subject.statistics().getStreams());
+    }
+
+    @Test
+    public void cartChanged_subscriberQueueFull_dropsSubscriber() throws Exception {
+        slowClient = new CountDownLatch(1);
+        subject.subscribe("MyFirstCart", 3, null);
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.next();
+
+        for (long version = 4; version <= 4 + SUBSCRIBER_QUEUE_SIZE + 1; version++) {
+            subject.cartChanged(itemAdded("MyFirstCart", version));
+        }
+
+        awaitTrue(() -> subject.statistics().getSlowSubscribers() == 1);
+        assertEquals(Integer.valueOf(0), subject.statistics().getSubscribers());
+        slowClient.countDown();
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(Long.valueOf(1), subject.statistics().getSlowSubscribers());
+    }
+
+    @Test
+    public void cartChanged_outOfVersionOrder_waitsForTheMissingVersion() throws Exception {
+        subject.subscribe("MyFirstCart", 3, null);
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.next();
+
+        subject.cartChanged(itemAdded("MyFirstCart", 5));
+
+        assertNull(emitter.events.poll(200, TimeUnit.MILLISECONDS));
+
+        subject.cartChanged(itemAdded("MyFirstCart", 4));
+
+        assertTrue(emitter.next().startsWith("id:4\n"));
+        assertTrue(emitter.next().startsWith("id:5\n"));
+    }
+
+    private static CartChangedEvent itemAdded(String cartName, long cartVersion) {
+        return CartChangedEvent
+                .builder()
+                .cartName(cartName)
+                .cartVersion(cartVersion)
+                .changes(Collections.singletonList(CartChange
+                        .builder()
+                        .type(CartChangeType.ITEM_ADDED)
+                        .skuNumber("IPHONE8S")
+                        .quantity(1)
+                        .build()))
+                .build();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records what would be written to the client; with a slow client latch, every send after the first waits for
+     * it, like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch slowClient;
+        private volatile Runnable completionCallback;
+        private volatile boolean sent;
+
+        private RecordingEmitter(CountDownLatch slowClient) {
+            this.slowClient = slowClient;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            events.add(event.toString());
+            if (slowClient != null && sent) {
+                try {
+                    slowClient.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        // what the container does once the response is complete
+        @Override
+        public void complete() {
+            if (completionCallback != null) {
+                completionCallback.run();
+            }
+            completed.countDown();
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertTrue(event != null);
+            return event;
+        }
+    }
+}
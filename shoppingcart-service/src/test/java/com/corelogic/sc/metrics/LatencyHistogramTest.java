@@ -0,0 +1,64 @@
+package com.corelogic.sc.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new LatencyHistogram();
+    }
+
+    @Test
+    public void percentileMicros_smallValues_areExact() {
+        for (int micros = 1; micros <= 50; micros++) {
+            subject.recordMicros(micros);
+        }
+
+        assertEquals(50, subject.count());
+        assertEquals(25, subject.percentileMicros(50));
+        assertEquals(45, subject.percentileMicros(90));
+        assertEquals(50, subject.percentileMicros(100));
+        assertEquals(25.5, subject.meanMicros(), 0.001);
+    }
+
+    @Test
+    public void percentileMicros_largeValues_areWithinBucketPrecision() {
+        for (int sample = 0; sample < 99; sample++) {
+            subject.recordMicros(1000);
+        }
+        subject.recordMicros(250000);
+
+        long p50 = subject.percentileMicros(50);
+        assertTrue(p50 >= 1000 && p50 <= 1000 * 1.04);
+        assertEquals(250000, subject.percentileMicros(100));
+        assertEquals(250000, subject.maxMicros());
+    }
+
+    @Test
+    public void bucketUpperBound_coversEveryValueInItsBucket() {
+        for (long micros = 0; micros < 1 << 20; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= micros);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < micros);
+        }
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        subject.recordMicros(10);
+        subject.recordMicros(100000);
+
+        subject.reset();
+
+        assertEquals(0, subject.count());
+        assertEquals(0, subject.maxMicros());
+        assertEquals(0, subject.percentileMicros(99));
+    }
+}
@@ -0,0 +1,86 @@
+package com.corelogic.sc.metrics;
+
+import com.corelogic.sc.responses.MethodMetricsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MethodMetricsTest {
+
+    private MethodMetrics subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new MethodMetrics();
+    }
+
+    @Test
+    public void snapshot_splitsSeriesByMethodAndOutcome() {
+        subject.record("ItemService.addItem(AddItemRequest)", "OK", 2000000);
+        subject.record("ItemService.addItem(AddItemRequest)", "OK", 4000000);
+        subject.record("ItemService.addItem(AddItemRequest)", "InsufficientProductInventoryException", 1000000);
+        subject.record("CartService.createCart(AddCartRequest)", "OK", 500000);
+
+        List<MethodMetricsResponse> snapshot = subject.snapshot(false);
+
+        assertEquals(3, snapshot.size());
+        assertEquals("CartService.createCart(AddCartRequest)", snapshot.get(0).getMethod());
+        assertEquals("InsufficientProductInventoryException", snapshot.get(1).getOutcome());
+        assertEquals(Long.valueOf(1), snapshot.get(1).getCount());
+        MethodMetricsResponse addItemOk = snapshot.get(2);
+        assertEquals("OK", addItemOk.getOutcome());
+        assertEquals(Long.valueOf(2), addItemOk.getCount());
+        assertEquals(3000.0, addItemOk.getMeanMicros(), 0.001);
+        assertEquals(Long.valueOf(4000), addItemOk.getMaxMicros());
+        assertTrue(addItemOk.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    public void snapshot_withReset_startsANewWindow() {
+        subject.record("CartService.createCart(AddCartRequest)", "OK", 500000);
+
+        assertEquals(1, subject.snapshot(true).size());
+        assertEquals(0, subject.snapshot(true).size());
+
+        subject.record("CartService.createCart(AddCartRequest)", "OK", 500000);
+        assertEquals(Long.valueOf(1), subject.snapshot(false).get(0).getCount());
+        assertEquals(Long.valueOf(1), subject.snapshot(false).get(0).getCount());
+    }
+
+    @Test
+    public void snapshot_withResetWhileRecording_neitherLosesNorRepeatsCalls() throws Exception {
+        int threads = 4;
+        int callsPerThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(() -> {
+                for (int call = 0; call < callsPerThread; call++) {
+                    subject.record("CartService.createCart(AddCartRequest)", "OK", 500000);
+                }
+                done.countDown();
+            });
+        }
+
+        long counted = 0;
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            counted += count(subject.snapshot(true));
+        }
+        counted += count(subject.snapshot(true));
+        executor.shutdown();
+
+        assertEquals(threads * callsPerThread, counted);
+    }
+
+    private static long count(List<MethodMetricsResponse> snapshot) {
+        return snapshot.stream().mapToLong(MethodMetricsResponse::getCount).sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.corelogic.sc.metrics;
+
+import com.corelogic.sc.responses.QueryShapeMetricsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class QueryShapeMetricsTest {
+
+    private QueryShapeMetrics subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new QueryShapeMetrics();
+    }
+
+    @Test
+    public void shape_replacesLiteralsAndFoldsParameterLists() {
+        assertEquals("select * from product where sku_number = ? and inventory_count > ?",
+                QueryShapeMetrics.shape("select *\n  from product where sku_number = 'IPHONE8S' and inventory_count > 10"));
+        assertEquals("select * from product where sku_number in (?...)",
+                QueryShapeMetrics.shape("select * from product where sku_number in (?, ?, ?)"));
+        assertEquals("select product0_.sku_number from product product0_",
+                QueryShapeMetrics.shape("select product0_.sku_number from product product0_"));
+    }
+
+    @Test
+    public void cachedShape_reusesTheShapeOfRepeatedSql() {
+        String sql = "select * from product where sku_number = 'IPHONE8S'";
+
+        String shape = subject.cachedShape(sql);
+
+        assertEquals("select * from product where sku_number = ?", shape);
+        assertSame(shape, subject.cachedShape(sql));
+    }
+
+    @Test
+    public void cachedShape_whenTheCacheIsFull_stillShapesNewSql() {
+        for (int sku = 0; sku < 10000; sku++) {
+            subject.cachedShape("select * from product where sku_number = 'SKU" + sku + "'");
+        }
+
+        assertEquals("select * from cart where cart_name = ?",
+                subject.cachedShape("select * from cart where cart_name = 'MyFirstCart'"));
+    }
+
+    @Test
+    public void snapshot_aggregatesByShape_slowestTotalFirst() {
+        subject.record("select * from cart where cart_name = ?", 1000000, 1);
+        subject.record("select * from cart where cart_name = ?", 3000000, 0);
+        subject.recordRows("select * from cart where cart_name = ?", 2);
+        subject.record("select * from item where cart_name = ?", 1000000, 5);
+
+        List<QueryShapeMetricsResponse> snapshot = subject.snapshot(true);
+
+        assertEquals(2, snapshot.size());
+        assertEquals("select * from cart where cart_name = ?", snapshot.get(0).getShape());
+        assertEquals(Long.valueOf(2), snapshot.get(0).getCount());
+        assertEquals(Long.valueOf(3), snapshot.get(0).getRows());
+        assertEquals(4.0, snapshot.get(0).getTotalMillis(), 0.001);
+        assertEquals(0, subject.snapshot(true).size());
+    }
+
+    @Test
+    public void snapshot_withResetWhileRecording_neitherLosesNorRepeatsExecutions() throws Exception {
+        int threads = 4;
+        int executionsPerThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(() -> {
+                for (int execution = 0; execution < executionsPerThread; execution++) {
+                    subject.record("select * from cart where cart_name = ?", 100000, 1);
+                }
+                done.countDown();
+            });
+        }
+
+        long counted = 0;
+        long rows = 0;
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            for (QueryShapeMetricsResponse response : subject.snapshot(true)) {
+                counted += response.getCount();
+                rows += response.getRows();
+            }
+        }
+        for (QueryShapeMetricsResponse response : subject.snapshot(true)) {
+            counted += response.getCount();
+            rows += response.getRows();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * executionsPerThread, counted);
+        assertEquals(threads * executionsPerThread, rows);
+    }
+}
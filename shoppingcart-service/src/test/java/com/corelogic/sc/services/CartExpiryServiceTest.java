@@ -0,0 +1,92 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.events.CartsExpiredEvent;
+import com.corelogic.sc.responses.CartExpiryStatisticsResponse;
+import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class})
+public class CartExpiryServiceTest {
+
+    @Mock
+    private CartRepository mockCartRepository;
+
+    @Mock
+    private ItemRepository mockItemRepository;
+
+    @Mock
+    private ProductRepository mockProductRepository;
+
+    @Mock
+    private ApplicationEventPublisher mockEventPublisher;
+
+    private CartExpiryService subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        subject = new CartExpiryService(mockCartRepository, mockItemRepository, mockProductRepository, 60, 2,
+                mockEventPublisher);
+    }
+
+    @Test
+    public void expireCarts_restoresInventoryThenDeletesClaimedCartsThenPublishesThem() {
+        List<String> cartNames = Arrays.asList("Cart101", "Cart102");
+        when(mockCartRepository.claimExpiredCartNames(60, 2)).thenReturn(cartNames);
+
+        int actual = subject.expireCarts();
+
+        assertEquals(2, actual);
+        InOrder inOrder = inOrder(mockProductRepository, mockItemRepository, mockCartRepository, mockEventPublisher);
+        inOrder.verify(mockProductRepository).restoreInventoryCountsForCarts(cartNames);
+        inOrder.verify(mockItemRepository).deleteByCartNameIn(cartNames);
+        inOrder.verify(mockCartRepository).deleteByCartNameIn(cartNames);
+        inOrder.verify(mockEventPublisher).publishEvent(CartsExpiredEvent.builder().cartNames(cartNames).build());
+    }
+
+    @Test
+    public void expireCarts_nothingExpired_writesNothing() {
+        when(mockCartRepository.claimExpiredCartNames(60, 2)).thenReturn(Collections.emptyList());
+
+        int actual = subject.expireCarts();
+
+        assertEquals(0, actual);
+        verify(mockProductRepository, never()).restoreInventoryCountsForCarts(any());
+        verify(mockItemRepository, never()).deleteByCartNameIn(any());
+        verify(mockCartRepository, never()).deleteByCartNameIn(any());
+        verifyNoInteractions(mockEventPublisher);
+    }
+
+    @Test
+    public void statistics_accumulatesOverChunks() {
+        when(mockCartRepository.claimExpiredCartNames(60, 2))
+                .thenReturn(Arrays.asList("Cart101", "Cart102"))
+                .thenReturn(Collections.singletonList("Cart103"));
+        when(mockProductRepository.restoreInventoryCountsForCarts(any())).thenReturn(3, 1);
+        when(mockItemRepository.deleteByCartNameIn(any())).thenReturn(4, 1);
+
+        subject.expireCarts();
+        subject.expireCarts();
+
+        assertEquals(new CartExpiryStatisticsResponse(60, 2, 2L, 3L, 5L, 4L), subject.statistics());
+    }
+}
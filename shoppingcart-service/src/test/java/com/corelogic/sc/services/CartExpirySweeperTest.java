@@ -0,0 +1,47 @@
+package com.corelogic.sc.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class})
+public class CartExpirySweeperTest {
+
+    @Mock
+    private CartExpiryService mockCartExpiryService;
+
+    @Test
+    public void sweep_expiresChunksUntilOneComesBackShort() {
+        when(mockCartExpiryService.getChunkSize()).thenReturn(2);
+        when(mockCartExpiryService.expireCarts()).thenReturn(2, 2, 1);
+
+        new CartExpirySweeper(mockCartExpiryService, 10).sweep();
+
+        verify(mockCartExpiryService, times(3)).expireCarts();
+    }
+
+    @Test
+    public void sweep_stopsAtMaxChunksPerSweep() {
+        when(mockCartExpiryService.getChunkSize()).thenReturn(2);
+        when(mockCartExpiryService.expireCarts()).thenReturn(2);
+
+        new CartExpirySweeper(mockCartExpiryService, 3).sweep();
+
+        verify(mockCartExpiryService, times(3)).expireCarts();
+    }
+
+    @Test
+    public void sweep_onDataAccessException_stopsWithoutThrowing() {
+        when(mockCartExpiryService.expireCarts()).thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        new CartExpirySweeper(mockCartExpiryService, 3).sweep();
+
+        verify(mockCartExpiryService, times(1)).expireCarts();
+    }
+}
@@ -1,33 +1,40 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.ReadCoalescer;
 import com.corelogic.sc.entities.Cart;
-import com.corelogic.sc.entities.Item;
-import com.corelogic.sc.entities.Product;
-import com.corelogic.sc.entities.ProductCategory;
+import com.corelogic.sc.events.CartChange;
+import com.corelogic.sc.events.CartChangeType;
+import com.corelogic.sc.events.CartChangedEvent;
 import com.corelogic.sc.exceptions.CartNotFoundException;
-import com.corelogic.sc.exceptions.ItemNotFoundException;
-import com.corelogic.sc.exceptions.ProductNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.requests.AddCartRequest;
 import com.corelogic.sc.requests.DeleteCartRequest;
-import com.corelogic.sc.requests.RemoveItemFromCartRequest;
 import com.corelogic.sc.responses.CartResponse;
 import com.corelogic.sc.responses.CartStatus;
-import com.corelogic.sc.responses.ItemResponse;
+import com.corelogic.sc.responses.CartSummaryResponse;
 import com.corelogic.sc.respositories.CartRepository;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith({MockitoExtension.class})
@@ -37,7 +44,15 @@ public class CartServiceTest {
     private CartRepository mockCartRepository;
 
     @Mock
-    private ItemService mockItemService;
+    private ItemRepository mockItemRepository;
+
+    @Mock
+    private ProductRepository mockProductRepository;
+
+    @Mock
+    private ApplicationEventPublisher mockEventPublisher;
+
+    private KnownKeysFilter knownKeysFilter;
 
     private CartService subject;
 
@@ -45,7 +60,9 @@ public class CartServiceTest {
 
     @BeforeEach
     public void setUp() throws Exception {
-        subject = new CartService(mockCartRepository, mockItemService);
+        knownKeysFilter = new KnownKeysFilter(0.001, 100);
+        subject = new CartService(mockCartRepository, mockItemRepository, mockProductRepository, new ReadCoalescer(1000),
+                knownKeysFilter, mockEventPublisher);
     }
 
     @Test
@@ -72,6 +89,34 @@ public class CartServiceTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void cartSummary_returnsAggregatedTotals() throws Exception {
+        when(mockCartRepository.findCartSummaryByCartName("Cart101"))
+                .thenReturn(new CartSummaryResponse("Cart101", 2L, 5L, new BigDecimal("3199.96")));
+
+        CartSummaryResponse actual = subject.cartSummary("Cart101");
+
+        assertEquals(new CartSummaryResponse("Cart101", 2L, 5L, new BigDecimal("3199.96")), actual);
+    }
+
+    @Test
+    public void cartSummary_emptyCart_returnsZeroTotals() throws Exception {
+        when(mockCartRepository.findCartSummaryByCartName("Cart101"))
+                .thenReturn(new CartSummaryResponse("Cart101", 0L, null, null));
+
+        CartSummaryResponse actual = subject.cartSummary("Cart101");
+
+        assertEquals(new CartSummaryResponse("Cart101", 0L, 0L, new BigDecimal("0.00")), actual);
+    }
+
+    @Test
+    public void cartSummary_doesNotFindCartByThatCartName_throwsCartNotFoundException() throws Exception {
+        when(mockCartRepository.findCartSummaryByCartName("Cart101")).thenReturn(null);
+
+        Assertions.assertThrows(CartNotFoundException.class, () ->
+                subject.cartSummary("Cart101"));
+    }
+
     @Test
     public void findCart_doesNotFindCartByThatCartName_throwsCartNotFoundException() throws Exception {
         when(mockCartRepository.findByCartName("Cart101")).thenReturn(null);
@@ -83,96 +128,96 @@ public class CartServiceTest {
     }
 
     @Test
-    public void deleteCart_deletesCart() throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        Product product = Product
-                .builder()
-                .price(100.0)
-                .productName("IPAD10")
-                .description("IPAD10")
-                .inventoryCount(100)
-                .skuNumber("IPAD10")
-                .productCategory(ProductCategory.builder().build())
-                .build();
-
-        Cart savedCart = Cart
-                .builder()
-                .cartName("MyFirstCart")
-                .description("MyFirstCart")
-                .status("ACTIVE")
-                .items(Collections.singletonList(Item
-                        .builder()
-                        .itemId(1L)
-                        .quantity(1)
-                        .createdDate(now)
-                        .product(product)
-                        .build()))
-                .build();
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCart);
-
-        doNothing().when(mockCartRepository).deleteById("MyFirstCart");
+    public void findCart_cartNameRuledOutByKnownKeys_throwsStacklessCartNotFoundExceptionWithoutQuery() {
+        knownKeysFilter.cartNames().startRebuild(1);
+        knownKeysFilter.cartNames().putRebuilt("Cart101");
+        knownKeysFilter.cartNames().completeRebuild();
+
+        CartNotFoundException exception = Assertions.assertThrows(CartNotFoundException.class, () ->
+                subject.findCart("NoSuchCart"));
+
+        assertEquals("Cart NoSuchCart was not found", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+        verifyNoInteractions(mockCartRepository);
+    }
+
+    @Test
+    public void createCart_addsCartNameToKnownKeys() {
+        knownKeysFilter.cartNames().startRebuild(1);
+        knownKeysFilter.cartNames().completeRebuild();
+        Cart savedCart = Cart.builder().cartName("Cart101").description("MyFirstCart").status("ACTIVE").build();
+        when(mockCartRepository.save(savedCart)).thenReturn(savedCart);
+
+        subject.createCart(AddCartRequest.builder().cartName("Cart101").description("MyFirstCart").build());
+
+        assertTrue(knownKeysFilter.mightContainCartName("Cart101"));
+    }
+
+    @Test
+    public void deleteCart_deletesCart() throws CartNotFoundException, CartVersionMismatchException {
+        when(mockCartRepository.touch("MyFirstCart", null)).thenReturn(1L);
 
         subject.deleteCart(DeleteCartRequest
                 .builder()
                 .cartName("MyFirstCart")
-                .build());
-        verify(mockCartRepository).deleteById("MyFirstCart");
+                .build(), null);
+
+        verify(mockItemRepository).deleteByCartName("MyFirstCart");
+        verify(mockCartRepository).deleteByCartName("MyFirstCart");
     }
 
     @Test
-    public void deleteCart_invokesItemService() throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        Product product = Product
-                .builder()
-                .price(100.0)
-                .productName("IPAD10")
-                .description("IPAD10")
-                .inventoryCount(100)
-                .skuNumber("IPAD10")
-                .productCategory(ProductCategory.builder().build())
-                .build();
-
-        Cart savedCart = Cart
-                .builder()
-                .cartName("MyFirstCart")
-                .description("MyFirstCart")
-                .status("ACTIVE")
-                .items(Collections.singletonList(Item
-                        .builder()
-                        .itemId(1L)
-                        .quantity(1)
-                        .createdDate(now)
-                        .product(product)
-                        .build()))
-                .build();
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCart);
-
-        RemoveItemFromCartRequest removeItemFromCartRequest = RemoveItemFromCartRequest
+    public void deleteCart_restoresInventoryBeforeDeletingItems() throws CartNotFoundException, CartVersionMismatchException {
+        when(mockCartRepository.touch("MyFirstCart", null)).thenReturn(1L);
+
+        subject.deleteCart(DeleteCartRequest
                 .builder()
                 .cartName("MyFirstCart")
-                .quantity(1)
-                .skuNumber("IPAD10")
-                .build();
-        when(mockItemService.removeItem(removeItemFromCartRequest)).thenReturn(ItemResponse.builder().build());
+                .build(), null);
+
+        InOrder inOrder = inOrder(mockProductRepository, mockItemRepository, mockCartRepository);
+        inOrder.verify(mockProductRepository).restoreInventoryCountsForCart("MyFirstCart");
+        inOrder.verify(mockItemRepository).deleteByCartName("MyFirstCart");
+        inOrder.verify(mockCartRepository).deleteByCartName("MyFirstCart");
+    }
 
-        doNothing().when(mockCartRepository).deleteById("MyFirstCart");
+    @Test
+    public void deleteCart_publishesCartDeletedAtTheTouchedVersion() throws CartNotFoundException, CartVersionMismatchException {
+        when(mockCartRepository.touch("MyFirstCart", null)).thenReturn(4L);
 
         subject.deleteCart(DeleteCartRequest
                 .builder()
                 .cartName("MyFirstCart")
-                .build());
+                .build(), null);
 
-        verify(mockItemService).removeItem(RemoveItemFromCartRequest
+        verify(mockEventPublisher).publishEvent(CartChangedEvent
                 .builder()
                 .cartName("MyFirstCart")
-                .quantity(1)
-                .skuNumber("IPAD10")
+                .cartVersion(4L)
+                .changes(Collections.singletonList(CartChange.builder().type(CartChangeType.CART_DELETED).build()))
                 .build());
     }
 
     @Test
     public void deleteCart_doesNotFindCartByThatCartName_throwsCartNotFoundException() {
-        when(mockCartRepository.findByCartName("InvalidCart")).thenReturn(null);
+        when(mockCartRepository.touch("InvalidCart", null)).thenReturn(null);
 
         Assertions.assertThrows(CartNotFoundException.class, () ->
-                subject.deleteCart(DeleteCartRequest.builder().cartName("InvalidCart").build()));
+                subject.deleteCart(DeleteCartRequest.builder().cartName("InvalidCart").build(), null));
+
+        verify(mockProductRepository, never()).restoreInventoryCountsForCart("InvalidCart");
+    }
+
+    @Test
+    public void deleteCart_atAnotherCartVersion_throwsCartVersionMismatchException() {
+        when(mockCartRepository.touch("MyFirstCart", 3L)).thenReturn(null);
+        when(mockCartRepository.existsById("MyFirstCart")).thenReturn(true);
+
+        Assertions.assertThrows(CartVersionMismatchException.class, () ->
+                subject.deleteCart(DeleteCartRequest.builder().cartName("MyFirstCart").build(), 3L));
+
+        verify(mockProductRepository, never()).restoreInventoryCountsForCart("MyFirstCart");
+        verify(mockCartRepository, never()).deleteByCartName("MyFirstCart");
+        verifyNoInteractions(mockEventPublisher);
     }
 }
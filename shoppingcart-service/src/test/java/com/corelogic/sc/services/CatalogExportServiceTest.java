@@ -0,0 +1,104 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.responses.InventoryExportResponse;
+import com.corelogic.sc.responses.ProductExportResponse;
+import com.corelogic.sc.respositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith({MockitoExtension.class})
+public class CatalogExportServiceTest {
+
+    private CatalogExportService subject;
+
+    @Mock
+    private ProductRepository mockProductRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        subject = new CatalogExportService(mockProductRepository, objectMapper);
+    }
+
+    @Test
+    public void exportProducts_writesOneJsonLinePerProduct() throws Exception {
+        LocalDateTime updatedSince = LocalDateTime.of(2019, 7, 1, 0, 0);
+        doAnswer(invocation -> {
+            Consumer<ProductExportResponse> consumer = invocation.getArgument(1);
+            consumer.accept(product("IPAD10", "iPad 10", LocalDateTime.of(2019, 7, 2, 10, 15, 30)));
+            consumer.accept(product("IPHONE8S", "iPhone 8S", LocalDateTime.of(2019, 7, 3, 8, 0)));
+            return null;
+        }).when(mockProductRepository).forEachProductExport(eq(updatedSince), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long actual = subject.exportProducts(updatedSince, outputStream);
+
+        assertEquals(2, actual);
+        assertEquals("{\"skuNumber\":\"IPAD10\",\"productName\":\"iPad 10\",\"description\":\"Apple iPad 10\"," +
+                        "\"inventoryCount\":150,\"price\":799.99,\"productCategoryName\":\"Electronics\"," +
+                        "\"updatedDate\":\"2019-07-02T10:15:30\"}\n" +
+                        "{\"skuNumber\":\"IPHONE8S\",\"productName\":\"iPhone 8S\",\"description\":\"Apple iPhone 8S\"," +
+                        "\"inventoryCount\":150,\"price\":799.99,\"productCategoryName\":\"Electronics\"," +
+                        "\"updatedDate\":\"2019-07-03T08:00:00\"}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void exportProducts_withoutProducts_writesNothing() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long actual = subject.exportProducts(null, outputStream);
+
+        assertEquals(0, actual);
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    public void exportInventoryCounts_writesOneJsonLinePerProduct() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<InventoryExportResponse> consumer = invocation.getArgument(0);
+            consumer.accept(InventoryExportResponse.builder().skuNumber("IPAD10").inventoryCount(150).build());
+            consumer.accept(InventoryExportResponse.builder().skuNumber("IPHONE8S").inventoryCount(0).build());
+            return null;
+        }).when(mockProductRepository).forEachInventoryExport(any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long actual = subject.exportInventoryCounts(outputStream);
+
+        assertEquals(2, actual);
+        assertEquals("{\"skuNumber\":\"IPAD10\",\"inventoryCount\":150}\n" +
+                        "{\"skuNumber\":\"IPHONE8S\",\"inventoryCount\":0}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static ProductExportResponse product(String skuNumber, String productName, LocalDateTime updatedDate) {
+        return ProductExportResponse
+                .builder()
+                .skuNumber(skuNumber)
+                .productName(productName)
+                .description("Apple " + productName)
+                .inventoryCount(150)
+                .price(new BigDecimal("799.99"))
+                .productCategoryName("Electronics")
+                .updatedDate(updatedDate)
+                .build();
+    }
+}
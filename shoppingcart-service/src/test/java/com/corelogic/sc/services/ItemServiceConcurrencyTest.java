@@ -0,0 +1,138 @@
+package com.corelogic.sc.services;
+
+import com.corelogic.sc.ShoppingCartServiceApplication;
+import com.corelogic.sc.caches.SecondLevelCache;
+import com.corelogic.sc.configurations.ShoppingCartServicesConfiguration;
+import com.corelogic.sc.entities.Item;
+import com.corelogic.sc.exceptions.InsufficientProductInventoryException;
+import com.corelogic.sc.requests.AddCartRequest;
+import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.respositories.ItemRepository;
+import com.corelogic.sc.respositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ContextConfiguration(classes = {ShoppingCartServiceApplication.class, ShoppingCartServicesConfiguration.class})
+public class ItemServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private static final int ADDS_PER_THREAD = 10;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${db.utilities.url}")
+    private String dbUtilitiesURL;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        restTemplate.exchange(dbUtilitiesURL + "/reseed",
+                HttpMethod.POST,
+                null,
+                new ParameterizedTypeReference<Void>() {
+                });
+        secondLevelCache.evictAll();
+    }
+
+    @Test
+    public void addItem_concurrentAddsOnOneSku_neverOversellInventory() throws Exception {
+        int initialInventoryCount = productRepository.findInventoryCountBySkuNumber("IPHONE8S");
+
+        List<String> cartNames = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            String cartName = "ConcurrentCart" + thread;
+            cartService.createCart(AddCartRequest.builder().cartName(cartName).description(cartName).build());
+            cartNames.add(cartName);
+        }
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (String cartName : cartNames) {
+                Callable<Void> adds = () -> {
+                    start.await();
+                    for (int add = 0; add < ADDS_PER_THREAD; add++) {
+                        try {
+                            itemService.addItem(AddItemRequest
+                                    .builder()
+                                    .cartName(cartName)
+                                    .skuNumber("IPHONE8S")
+                                    .quantity(1)
+                                    .build(), null);
+                            reserved.incrementAndGet();
+                        } catch (InsufficientProductInventoryException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(adds));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int attempts = THREADS * ADDS_PER_THREAD;
+        assertTrue(attempts > initialInventoryCount);
+        assertEquals(initialInventoryCount, reserved.get());
+        assertEquals(attempts - initialInventoryCount, rejected.get());
+        assertEquals(0, productRepository.findInventoryCountBySkuNumber("IPHONE8S").intValue());
+        assertEquals(0, productRepository.findBySkuNumber("IPHONE8S").getInventoryCount().intValue());
+
+        int reservedInCarts = 0;
+        for (String cartName : cartNames) {
+            reservedInCarts += itemRepository.findByCartName(cartName)
+                    .stream()
+                    .mapToInt(Item::getQuantity)
+                    .sum();
+        }
+        assertEquals(initialInventoryCount, reservedInCarts);
+    }
+}
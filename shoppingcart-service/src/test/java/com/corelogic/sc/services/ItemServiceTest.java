@@ -1,14 +1,23 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
 import com.corelogic.sc.entities.Cart;
 import com.corelogic.sc.entities.Item;
 import com.corelogic.sc.entities.Product;
 import com.corelogic.sc.entities.ProductCategory;
+import com.corelogic.sc.events.CartChange;
+import com.corelogic.sc.events.CartChangeType;
+import com.corelogic.sc.events.CartChangedEvent;
 import com.corelogic.sc.exceptions.CartNotFoundException;
+import com.corelogic.sc.exceptions.CartVersionMismatchException;
 import com.corelogic.sc.exceptions.InsufficientProductInventoryException;
+import com.corelogic.sc.exceptions.InvalidItemQuantityException;
 import com.corelogic.sc.exceptions.ItemNotFoundException;
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddItemRequest;
+import com.corelogic.sc.requests.BatchItemRequest;
+import com.corelogic.sc.requests.ItemOperation;
+import com.corelogic.sc.requests.ItemOperationRequest;
 import com.corelogic.sc.requests.RemoveItemFromCartRequest;
 import com.corelogic.sc.responses.ItemResponse;
 import com.corelogic.sc.responses.ItemStatus;
@@ -25,19 +34,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -56,11 +70,14 @@ public class ItemServiceTest {
     @Mock
     private ProductRepository mockProductRepository;
 
+    @Mock
+    private ApplicationEventPublisher mockEventPublisher;
+
     @Captor
     private ArgumentCaptor<Item> itemArgumentCaptor;
 
     @Captor
-    private ArgumentCaptor<Product> productArgumentCaptor;
+    private ArgumentCaptor<List<Item>> itemListArgumentCaptor;
 
     private Cart savedCart;
 
@@ -68,8 +85,6 @@ public class ItemServiceTest {
 
     private ProductCategory savedProductCategory;
 
-    private Item savedItem;
-
     private Item item1, item2;
 
     @Mock
@@ -83,7 +98,8 @@ public class ItemServiceTest {
 
     @BeforeEach
     public void setUp() throws Exception {
-        subject = new ItemService(clock, mockItemRepository, mockCartRepository, mockProductRepository);
+        subject = new ItemService(clock, mockItemRepository, mockCartRepository, mockProductRepository,
+                new KnownKeysFilter(0.01, 100), mockEventPublisher);
 
         fixedClock = Clock.fixed(LOCAL_DATE.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
         doReturn(fixedClock.instant()).when(clock).instant();
@@ -112,7 +128,7 @@ public class ItemServiceTest {
                 .skuNumber("22")
                 .inventoryCount(100)
                 .description("iPhone 8S")
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .productCategory(savedProductCategory)
                 .createdDate(now)
                 .build();
@@ -123,7 +139,7 @@ public class ItemServiceTest {
                 .skuNumber("24")
                 .inventoryCount(100)
                 .description("iPhone 9S")
-                .price(899.99)
+                .price(new BigDecimal("899.99"))
                 .productCategory(savedProductCategory)
                 .createdDate(now)
                 .build();
@@ -131,20 +147,10 @@ public class ItemServiceTest {
         savedProductCategory.setProducts(Arrays.asList(savedProduct1, savedProduct2));
 
         when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCart);
+        when(mockCartRepository.touch("MyFirstCart", null)).thenReturn(1L);
         when(mockProductRepository.findBySkuNumber("22")).thenReturn(savedProduct1);
         when(mockProductRepository.findBySkuNumber("24")).thenReturn(savedProduct2);
-
-        savedItem = Item
-                .builder()
-                .itemId(1L)
-                .cart(savedCart)
-                .product(savedProduct1)
-                .quantity(2)
-                .status(ItemStatus.ITEM_ACTIVE.name())
-                .createdDate(now)
-                .build();
-
-        when(mockItemRepository.save(any(Item.class))).thenReturn(savedItem);
+        when(mockProductRepository.decrementInventoryCount("22", 2)).thenReturn(1);
 
         item1 = Item
                 .builder()
@@ -168,87 +174,145 @@ public class ItemServiceTest {
     }
 
     @Test
-    public void addItem_findsCartByCartName() throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
+    public void addItem_touchesCartInsteadOfLoadingIt() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException, InvalidItemQuantityException {
+        ItemResponse actual = subject.addItem(AddItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .skuNumber("22")
+                .quantity(2)
+                .build(), null);
+
+        verify(mockCartRepository).touch("MyFirstCart", null);
+        verify(mockCartRepository, never()).findByCartName(any());
+        assertEquals(Long.valueOf(1), actual.getCartVersion());
+    }
+
+    @Test
+    public void addItem_publishesItemAddedAtTheTouchedVersion() throws Exception {
         subject.addItem(AddItemRequest
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
                 .quantity(2)
+                .build(), null);
+
+        verify(mockEventPublisher).publishEvent(CartChangedEvent
+                .builder()
+                .cartName("MyFirstCart")
+                .cartVersion(1L)
+                .changes(Collections.singletonList(CartChange
+                        .builder()
+                        .type(CartChangeType.ITEM_ADDED)
+                        .skuNumber("22")
+                        .quantity(2)
+                        .build()))
                 .build());
+    }
+
+    @Test
+    public void addItem_atAnotherCartVersion_throwsCartVersionMismatchException() {
+        when(mockCartRepository.touch("MyFirstCart", 3L)).thenReturn(null);
+        when(mockCartRepository.existsById("MyFirstCart")).thenReturn(true);
+
+        Assertions.assertThrows(CartVersionMismatchException.class, () ->
+        subject.addItem(AddItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .skuNumber("22")
+                .quantity(2)
+                .build(), 3L));
+
+        verify(mockProductRepository, never()).decrementInventoryCount(any(), any());
+    }
+
+    @Test
+    public void addItem_atCartVersion_addsItem() throws Exception {
+        when(mockCartRepository.touch("MyFirstCart", 3L)).thenReturn(4L);
+
+        ItemResponse actual = subject.addItem(AddItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .skuNumber("22")
+                .quantity(2)
+                .build(), 3L);
 
-        verify(mockCartRepository).findByCartName("MyFirstCart");
+        verify(mockItemRepository).upsertItems(any());
+        assertEquals(Long.valueOf(4), actual.getCartVersion());
     }
 
     @Test
-    public void addItem_findsProductBySkuNumber() throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
+    public void addItem_findsProductBySkuNumber() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException, InvalidItemQuantityException {
         subject.addItem(AddItemRequest
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
                 .quantity(2)
-                .build());
+                .build(), null);
 
         verify(mockProductRepository).findBySkuNumber("22");
     }
 
     @Test
-    public void addItem_addsItem() throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
+    public void addItem_addsItem() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException, InvalidItemQuantityException {
         ItemResponse actual = subject.addItem(AddItemRequest
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
                 .quantity(2)
-                .build());
+                .build(), null);
 
         ItemResponse expected = ItemResponse
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .quantity(2)
                 .status(ItemStatus.ITEM_ACTIVE)
                 .build();
 
-        verify(mockItemRepository).save(Item
+        verify(mockItemRepository).upsertItems(Collections.singletonList(Item
                 .builder()
-                .cart(savedCart)
+                .cart(Cart.builder().cartName("MyFirstCart").build())
                 .product(savedProduct1)
                 .quantity(2)
                 .status(ItemStatus.ITEM_ACTIVE.name())
                 .createdDate(now)
-                .build());
+                .build()));
 
         assertEquals(expected, actual);
     }
 
     @Test
     public void addItem_decrementsProductInventoryCount()
-            throws CartNotFoundException, ProductNotFoundException, InsufficientProductInventoryException {
+            throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, InsufficientProductInventoryException,
+            InvalidItemQuantityException {
         subject.addItem(AddItemRequest
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
                 .quantity(2)
-                .build());
+                .build(), null);
 
-        verify(mockItemRepository).save(itemArgumentCaptor.capture());
-
-        assertEquals(98, itemArgumentCaptor.getValue().getProduct().getInventoryCount().intValue());
+        verify(mockProductRepository).decrementInventoryCount("22", 2);
     }
 
     @Test
     public void addItem_onInsufficientProductInventory_throwsInsufficientProductInventoryException() {
+        when(mockProductRepository.decrementInventoryCount("22", 102)).thenReturn(0);
+
         Assertions.assertThrows(InsufficientProductInventoryException.class, () ->
         subject.addItem(AddItemRequest
                 .builder()
                 .cartName("MyFirstCart")
                 .skuNumber("22")
                 .quantity(102)
-                .build()));
+                .build(), null));
+
+        verify(mockItemRepository, never()).upsertItems(any());
     }
 
     @Test
-    public void removeItem_whenQuantityReducedIsLessThanItemQuantity_updatesQuantity() throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
+    public void removeItem_whenQuantityReducedIsLessThanItemQuantity_updatesQuantity() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException, InvalidItemQuantityException {
         Item savedItemWithQuantity = Item
                 .builder()
                 .itemId(1L)
@@ -258,57 +322,15 @@ public class ItemServiceTest {
                 .status(ItemStatus.ITEM_ACTIVE.name())
                 .createdDate(now)
                 .build();
-        when(mockItemRepository.findByCartName("MyFirstCart")).thenReturn(Collections.singletonList(savedItemWithQuantity));
-
-        Cart savedCartWithItems = Cart
-                .builder()
-                .cartName("MyFirstCart")
-                .description("My First Cart")
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCartWithItems);
-
-        Product savedProductWithReducedInventory = Product
-                .builder()
-                .productName("iPhone8S")
-                .skuNumber("22")
-                .inventoryCount(97)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockProductRepository.findBySkuNumber("22")).thenReturn(savedProductWithReducedInventory);
-
-        Product savedProductIncrementQuantity = Product
-                .builder()
-                .productName("iPhone8S")
-                .skuNumber("22")
-                .inventoryCount(98)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Arrays.asList(Item
-                        .builder()
-                        .itemId(1L)
-                        .cart(savedCart)
-                        .product(savedProduct1)
-                        .quantity(2)
-                        .status(ItemStatus.ITEM_ACTIVE.name())
-                        .createdDate(now)
-                        .build()))
-                .createdDate(now)
-                .build();
-        when(mockProductRepository.save(savedProductIncrementQuantity)).thenReturn(savedProductIncrementQuantity);
+        when(mockItemRepository.findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(savedItemWithQuantity));
 
         ItemResponse actual = subject.removeItem(RemoveItemFromCartRequest
                 .builder()
                 .skuNumber("22")
                 .quantity(1)
                 .cartName("MyFirstCart")
-                .build());
+                .build(), null);
 
         ItemResponse expected = ItemResponse
                 .builder()
@@ -316,72 +338,62 @@ public class ItemServiceTest {
                 .skuNumber("22")
                 .quantity(1)
                 .status(ItemStatus.ITEM_REMOVED)
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .build();
 
-        verify(mockItemRepository).findByCartName("MyFirstCart");
-        verify(mockCartRepository).findByCartName("MyFirstCart");
-        verify(mockProductRepository).findBySkuNumber("22");
-        verify(mockProductRepository).save(savedProductIncrementQuantity);
+        verify(mockItemRepository).findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1));
+        verify(mockProductRepository).incrementInventoryCount("22", 1);
+        verify(mockItemRepository, never()).delete(any(Item.class));
+        assertEquals(2, savedItemWithQuantity.getQuantity().intValue());
         assertEquals(expected, actual);
     }
 
     @Test
-    public void removeItem_whenQuantityReducedIsEqualToItemQuantity_removeItem() throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
-        Item savedItemWithQuantity = Item
-                .builder()
-                .itemId(1L)
-                .cart(savedCart)
-                .product(savedProduct1)
-                .quantity(1)
-                .status(ItemStatus.ITEM_ACTIVE.name())
-                .createdDate(now)
-                .build();
-        when(mockItemRepository.findByCartName("MyFirstCart")).thenReturn(Collections.singletonList(savedItemWithQuantity));
+    public void removeItem_whenQuantityReducedIsLessThanItemQuantity_publishesQuantityChanged() throws Exception {
+        when(mockItemRepository.findByCartNameAndSkuNumber("MyFirstCart", "24", PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(item2));
 
-        Cart savedCartWithItems = Cart
+        subject.removeItem(RemoveItemFromCartRequest
                 .builder()
+                .skuNumber("24")
+                .quantity(1)
                 .cartName("MyFirstCart")
-                .description("My First Cart")
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCartWithItems);
+                .build(), null);
 
-        Product savedProductWithReducedInventory = Product
+        verify(mockEventPublisher).publishEvent(CartChangedEvent
                 .builder()
-                .productName("iPhone8S")
-                .skuNumber("22")
-                .inventoryCount(99)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockProductRepository.findBySkuNumber("22")).thenReturn(savedProductWithReducedInventory);
-
-        doNothing().when(mockItemRepository).deleteById(1L);
+                .cartName("MyFirstCart")
+                .cartVersion(1L)
+                .changes(Collections.singletonList(CartChange
+                        .builder()
+                        .type(CartChangeType.ITEM_QUANTITY_CHANGED)
+                        .skuNumber("24")
+                        .quantity(1)
+                        .lineQuantity(1)
+                        .build()))
+                .build());
+    }
 
-        Product savedProductOriginalQuantity = Product
+    @Test
+    public void removeItem_whenQuantityReducedIsEqualToItemQuantity_removeItem() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException, InvalidItemQuantityException {
+        Item savedItemWithQuantity = Item
                 .builder()
-                .productName("iPhone8S")
-                .skuNumber("22")
-                .inventoryCount(100)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Collections.emptyList())
+                .itemId(1L)
+                .cart(savedCart)
+                .product(savedProduct1)
+                .quantity(1)
+                .status(ItemStatus.ITEM_ACTIVE.name())
                 .createdDate(now)
                 .build();
-        when(mockProductRepository.save(savedProductOriginalQuantity)).thenReturn(savedProductOriginalQuantity);
+        when(mockItemRepository.findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(savedItemWithQuantity));
 
         ItemResponse actual = subject.removeItem(RemoveItemFromCartRequest
                 .builder()
                 .skuNumber("22")
                 .quantity(1)
                 .cartName("MyFirstCart")
-                .build());
+                .build(), null);
 
         ItemResponse expected = ItemResponse
                 .builder()
@@ -389,19 +401,17 @@ public class ItemServiceTest {
                 .skuNumber("22")
                 .quantity(1)
                 .status(ItemStatus.ITEM_REMOVED)
-                .price(799.99)
+                .price(new BigDecimal("799.99"))
                 .build();
 
-        verify(mockItemRepository).findByCartName("MyFirstCart");
-        verify(mockCartRepository).findByCartName("MyFirstCart");
-        verify(mockProductRepository).findBySkuNumber("22");
-        verify(mockItemRepository).deleteById(1L);
-        verify(mockProductRepository).save(savedProductOriginalQuantity);
+        verify(mockItemRepository).findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1));
+        verify(mockItemRepository).delete(savedItemWithQuantity);
+        verify(mockProductRepository).incrementInventoryCount("22", 1);
         assertEquals(expected, actual);
     }
 
     @Test
-    public void removeItem_validateProductQuantity() throws CartNotFoundException, ProductNotFoundException, ItemNotFoundException {
+    public void removeItem_doesNotLoadCartOrProduct() throws CartNotFoundException, CartVersionMismatchException, ProductNotFoundException, ItemNotFoundException, InvalidItemQuantityException {
         Item savedItemWithQuantity = Item
                 .builder()
                 .itemId(1L)
@@ -411,60 +421,53 @@ public class ItemServiceTest {
                 .status(ItemStatus.ITEM_ACTIVE.name())
                 .createdDate(now)
                 .build();
-        when(mockItemRepository.findByCartName("MyFirstCart")).thenReturn(Collections.singletonList(savedItemWithQuantity));
+        when(mockItemRepository.findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(savedItemWithQuantity));
 
-        Cart savedCartWithItems = Cart
+        subject.removeItem(RemoveItemFromCartRequest
                 .builder()
+                .skuNumber("22")
+                .quantity(1)
                 .cartName("MyFirstCart")
-                .description("My First Cart")
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCartWithItems);
+                .build(), null);
 
-        Product savedProductWithReducedInventory = Product
-                .builder()
-                .productName("iPhone8S")
-                .skuNumber("22")
-                .inventoryCount(97)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Arrays.asList(savedItemWithQuantity))
-                .createdDate(now)
-                .build();
-        when(mockProductRepository.findBySkuNumber("22")).thenReturn(savedProductWithReducedInventory);
+        verify(mockCartRepository, never()).findByCartName(any());
+        verify(mockProductRepository, never()).findBySkuNumber(any());
+        verify(mockItemRepository, never()).findByCartName(any());
+        verify(mockProductRepository, never()).save(any(Product.class));
+    }
 
-        Product savedProductIncrementQuantity = Product
+    @Test
+    public void removeItem_withQuantityBelowOne_throwsInvalidItemQuantityException() {
+        Assertions.assertThrows(InvalidItemQuantityException.class, () ->
+        subject.removeItem(RemoveItemFromCartRequest
                 .builder()
-                .productName("iPhone8S")
                 .skuNumber("22")
-                .inventoryCount(98)
-                .description("iPhone 8S")
-                .price(799.99)
-                .productCategory(savedProductCategory)
-                .items(Arrays.asList(Item
-                        .builder()
-                        .itemId(1L)
-                        .cart(savedCart)
-                        .product(savedProduct1)
-                        .quantity(2)
-                        .status(ItemStatus.ITEM_ACTIVE.name())
-                        .createdDate(now)
-                        .build()))
-                .createdDate(now)
-                .build();
-        when(mockProductRepository.save(savedProductIncrementQuantity)).thenReturn(savedProductIncrementQuantity);
+                .quantity(-1)
+                .cartName("MyFirstCart")
+                .build(), null));
+
+        verify(mockCartRepository, never()).touch(any(), any());
+        verify(mockProductRepository, never()).incrementInventoryCount(any(), any());
+    }
+
+    @Test
+    public void removeItem_removingMoreThanTheItemHolds_throwsInvalidItemQuantityException() {
+        when(mockItemRepository.findByCartNameAndSkuNumber("MyFirstCart", "22", PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(item1));
 
+        Assertions.assertThrows(InvalidItemQuantityException.class, () ->
         subject.removeItem(RemoveItemFromCartRequest
                 .builder()
                 .skuNumber("22")
-                .quantity(1)
+                .quantity(2)
                 .cartName("MyFirstCart")
-                .build());
+                .build(), null));
 
-        verify(mockProductRepository).save(productArgumentCaptor.capture());
-        assertEquals(98, productArgumentCaptor.getValue().getInventoryCount().intValue());
+        verify(mockProductRepository, never()).incrementInventoryCount(any(), any());
+        verify(mockItemRepository, never()).delete(any(Item.class));
+        assertEquals(1, item1.getQuantity().intValue());
+        verify(mockEventPublisher, never()).publishEvent(any(CartChangedEvent.class));
     }
 
     @Test
@@ -475,18 +478,52 @@ public class ItemServiceTest {
                 .skuNumber("InvalidItemSKU")
                 .quantity(1)
                 .cartName("MyFirstCart")
-                .build()));
+                .build(), null));
+
+        verify(mockProductRepository, never()).incrementInventoryCount(any(), any());
+    }
+
+    @Test
+    public void removeItem_whenCartIsNotFound_throwsCartNotFoundException() {
+        when(mockCartRepository.touch("InvalidCart", null)).thenReturn(null);
+
+        Assertions.assertThrows(CartNotFoundException.class, () ->
+        subject.removeItem(RemoveItemFromCartRequest
+                .builder()
+                .skuNumber("22")
+                .quantity(1)
+                .cartName("InvalidCart")
+                .build(), null));
+
+        verify(mockItemRepository, never()).findByCartNameAndSkuNumber(any(), any(), any());
+        verify(mockProductRepository, never()).incrementInventoryCount(any(), any());
+    }
+
+    @Test
+    public void addItem_withQuantityBelowOne_throwsInvalidItemQuantityException() {
+        Assertions.assertThrows(InvalidItemQuantityException.class, () ->
+        subject.addItem(AddItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .skuNumber("22")
+                .quantity(0)
+                .build(), null));
+
+        verify(mockCartRepository, never()).touch(any(), any());
+        verify(mockProductRepository, never()).decrementInventoryCount(any(), any());
     }
 
     @Test
     public void addItem_findByCartNameWithInvalidCartName_throwsCartNotFoundException() {
+        when(mockCartRepository.touch("InvalidCart", null)).thenReturn(null);
+
         Assertions.assertThrows(CartNotFoundException.class, () ->
         subject.addItem(AddItemRequest
                 .builder()
                 .cartName("InvalidCart")
                 .skuNumber("22")
                 .quantity(2)
-                .build()));
+                .build(), null));
     }
 
     @Test
@@ -497,27 +534,18 @@ public class ItemServiceTest {
                 .cartName("MyFirstCart")
                 .skuNumber("InvalidSKU")
                 .quantity(2)
-                .build()));
+                .build(), null));
     }
 
     @Test
     public void retrieveItems_retrievesItemsInCart() throws Exception {
-        savedCart.setItems(Arrays.asList(item1, item2));
-        when(mockCartRepository.findByCartName("MyFirstCart")).thenReturn(savedCart);
-        when(mockItemRepository.findItemsByCart(savedCart)).thenReturn(Arrays.asList(item1, item2));
-
-
-        List<ItemResponse> actual = subject.retrieveItems("MyFirstCart");
-
-        verify(mockCartRepository).findByCartName("MyFirstCart");
-
         List<ItemResponse> expected = Arrays.asList(ItemResponse
                         .builder()
                         .cartName("MyFirstCart")
                         .skuNumber("22")
                         .quantity(1)
                         .status(ItemStatus.ITEM_ACTIVE)
-                        .price(799.99)
+                        .price(new BigDecimal("799.99"))
                         .build(),
                 ItemResponse
                         .builder()
@@ -525,14 +553,226 @@ public class ItemServiceTest {
                         .skuNumber("24")
                         .quantity(2)
                         .status(ItemStatus.ITEM_ACTIVE)
-                        .price(899.99)
+                        .price(new BigDecimal("899.99"))
                         .build());
+        when(mockItemRepository.findItemResponsesByCartName("MyFirstCart")).thenReturn(expected);
+
+        List<ItemResponse> actual = subject.retrieveItems("MyFirstCart");
+
+        verify(mockItemRepository).findItemResponsesByCartName("MyFirstCart");
+        verify(mockCartRepository, never()).existsById(any());
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void retrieveItems_emptyCart_returnsNoItems() throws Exception {
+        when(mockCartRepository.existsById("MyFirstCart")).thenReturn(true);
+
+        List<ItemResponse> actual = subject.retrieveItems("MyFirstCart");
+
+        assertEquals(Collections.EMPTY_LIST, actual);
+    }
+
     @Test
     public void retrieveItems_findByCartNameWithInvalidCartName_throwsCartNotFoundException() {
         Assertions.assertThrows(CartNotFoundException.class, () ->
         subject.retrieveItems("InvalidCart"));
     }
+
+    @Test
+    public void batchItems_appliesAddAndRemoveOperations() throws Exception {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Arrays.asList(savedProduct1, savedProduct2));
+        when(mockItemRepository.findByCartNameAndSkuNumberIn(any(), any())).thenReturn(Collections.singletonList(item1));
+        when(mockProductRepository.adjustInventoryCounts(any())).thenReturn(Collections.emptyList());
+
+        List<ItemResponse> actual = subject.batchItems(BatchItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .operations(Arrays.asList(
+                        ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(2).build(),
+                        ItemOperationRequest.builder().operation(ItemOperation.REMOVE).skuNumber("22").quantity(1).build()))
+                .build(), null);
+
+        Map<String, Integer> expectedInventoryQuantities = new HashMap<>();
+        expectedInventoryQuantities.put("24", 2);
+        expectedInventoryQuantities.put("22", -1);
+        verify(mockCartRepository).touch("MyFirstCart", null);
+        verify(mockProductRepository).adjustInventoryCounts(expectedInventoryQuantities);
+        verify(mockItemRepository).deleteItems(Collections.singletonList(1L));
+
+        verify(mockItemRepository).upsertItems(itemListArgumentCaptor.capture());
+        List<Item> insertedItems = itemListArgumentCaptor.getValue();
+        assertEquals(1, insertedItems.size());
+        assertEquals(savedProduct2, insertedItems.get(0).getProduct());
+        assertEquals(Integer.valueOf(2), insertedItems.get(0).getQuantity());
+
+        List<ItemResponse> expected = Arrays.asList(ItemResponse
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .skuNumber("24")
+                        .quantity(2)
+                        .status(ItemStatus.ITEM_ACTIVE)
+                        .price(new BigDecimal("899.99"))
+                        .build(),
+                ItemResponse
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .skuNumber("22")
+                        .quantity(1)
+                        .status(ItemStatus.ITEM_REMOVED)
+                        .price(new BigDecimal("799.99"))
+                        .build());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void batchItems_publishesOneEventWithAChangePerOperation() throws Exception {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Arrays.asList(savedProduct1, savedProduct2));
+        when(mockItemRepository.findByCartNameAndSkuNumberIn(any(), any())).thenReturn(Collections.singletonList(item1));
+        when(mockProductRepository.adjustInventoryCounts(any())).thenReturn(Collections.emptyList());
+
+        subject.batchItems(BatchItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .operations(Arrays.asList(
+                        ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(2).build(),
+                        ItemOperationRequest.builder().operation(ItemOperation.REMOVE).skuNumber("22").quantity(1).build()))
+                .build(), null);
+
+        verify(mockEventPublisher).publishEvent(CartChangedEvent
+                .builder()
+                .cartName("MyFirstCart")
+                .cartVersion(1L)
+                .changes(Arrays.asList(
+                        CartChange.builder().type(CartChangeType.ITEM_ADDED).skuNumber("24").quantity(2).lineQuantity(2).build(),
+                        CartChange.builder().type(CartChangeType.ITEM_REMOVED).skuNumber("22").quantity(1).lineQuantity(0).build()))
+                .build());
+    }
+
+    @Test
+    public void batchItems_addsForOneSkuNumber_mergeIntoOneLine() throws Exception {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Collections.singletonList(savedProduct2));
+        when(mockProductRepository.adjustInventoryCounts(any())).thenReturn(Collections.emptyList());
+
+        subject.batchItems(BatchItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .operations(Arrays.asList(
+                        ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(1).build(),
+                        ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(3).build()))
+                .build(), null);
+
+        verify(mockItemRepository, never()).findByCartNameAndSkuNumberIn(any(), any());
+        verify(mockItemRepository).upsertItems(itemListArgumentCaptor.capture());
+        List<Item> upsertedItems = itemListArgumentCaptor.getValue();
+        assertEquals(1, upsertedItems.size());
+        assertEquals(Integer.valueOf(4), upsertedItems.get(0).getQuantity());
+    }
+
+    @Test
+    public void batchItems_onInsufficientProductInventoryCount_throwsInsufficientProductInventoryException() {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Collections.singletonList(savedProduct2));
+        when(mockProductRepository.adjustInventoryCounts(any())).thenReturn(Collections.singletonList("24"));
+
+        Assertions.assertThrows(InsufficientProductInventoryException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Collections.singletonList(
+                                ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(200).build()))
+                        .build(), null));
+
+        verify(mockItemRepository, never()).upsertItems(any());
+        verify(mockEventPublisher, never()).publishEvent(any(CartChangedEvent.class));
+    }
+
+    @Test
+    public void batchItems_withInvalidSkuNumber_throwsProductNotFoundException() {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Collections.emptyList());
+
+        Assertions.assertThrows(ProductNotFoundException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Collections.singletonList(
+                                ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("InvalidSKUNumber").quantity(1).build()))
+                        .build(), null));
+
+        verify(mockProductRepository, never()).adjustInventoryCounts(any());
+    }
+
+    @Test
+    public void batchItems_withQuantityBelowOne_throwsInvalidItemQuantityException() {
+        Assertions.assertThrows(InvalidItemQuantityException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Arrays.asList(
+                                ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("24").quantity(2).build(),
+                                ItemOperationRequest.builder().operation(ItemOperation.ADD).skuNumber("22").quantity(-5).build()))
+                        .build(), null));
+
+        verify(mockCartRepository, never()).touch(any(), any());
+        verify(mockProductRepository, never()).adjustInventoryCounts(any());
+    }
+
+    @Test
+    public void batchItems_removingMoreThanTheLineHolds_throwsInvalidItemQuantityException() {
+        when(mockProductRepository.findBySkuNumberIn(any())).thenReturn(Collections.singletonList(savedProduct1));
+        when(mockItemRepository.findByCartNameAndSkuNumberIn(any(), any())).thenReturn(Collections.singletonList(item1));
+
+        Assertions.assertThrows(InvalidItemQuantityException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .operations(Collections.singletonList(
+                                ItemOperationRequest.builder().operation(ItemOperation.REMOVE).skuNumber("22").quantity(2).build()))
+                        .build(), null));
+
+        verify(mockProductRepository, never()).adjustInventoryCounts(any());
+        verify(mockItemRepository, never()).updateItemQuantities(any());
+        verify(mockEventPublisher, never()).publishEvent(any(CartChangedEvent.class));
+    }
+
+    @Test
+    public void batchItems_withoutOperations_leavesTheCartAtItsVersion() throws Exception {
+        when(mockCartRepository.findVersionByCartName("MyFirstCart")).thenReturn(3L);
+
+        List<ItemResponse> actual = subject.batchItems(BatchItemRequest
+                .builder()
+                .cartName("MyFirstCart")
+                .operations(Collections.emptyList())
+                .build(), 3L);
+
+        assertEquals(Collections.EMPTY_LIST, actual);
+        verify(mockCartRepository, never()).touch(any(), any());
+        verify(mockEventPublisher, never()).publishEvent(any(CartChangedEvent.class));
+    }
+
+    @Test
+    public void batchItems_withoutOperationsAtAnotherCartVersion_throwsCartVersionMismatchException() {
+        when(mockCartRepository.findVersionByCartName("MyFirstCart")).thenReturn(4L);
+
+        Assertions.assertThrows(CartVersionMismatchException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("MyFirstCart")
+                        .build(), 3L));
+
+        verify(mockCartRepository, never()).touch(any(), any());
+    }
+
+    @Test
+    public void batchItems_withoutOperationsForInvalidCartName_throwsCartNotFoundException() {
+        when(mockCartRepository.findVersionByCartName("InvalidCart")).thenReturn(null);
+
+        Assertions.assertThrows(CartNotFoundException.class, () ->
+                subject.batchItems(BatchItemRequest
+                        .builder()
+                        .cartName("InvalidCart")
+                        .operations(Collections.emptyList())
+                        .build(), null));
+
+        verify(mockEventPublisher, never()).publishEvent(any(CartChangedEvent.class));
+    }
 }
@@ -14,11 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,51 +37,38 @@ public class ProductCategoryServiceTest {
 
     @Test
     public void getProductCategories_returnsAllProductCategories() {
-        when(mockProductCategoryRepository.findAll()).thenReturn(Arrays.asList(
-                ProductCategory
-                        .builder()
-                        .productCategoryName("Electronics")
-                        .description("Electronics & Computer Equipment")
-                        .build(),
-                ProductCategory
-                        .builder()
-                        .productCategoryName("Lawn Equipment")
-                        .description("Lawn & Garden Equipment")
-                        .build()));
-
-
         List<ProductCategoryResponse> productCategoryResponses = new ArrayList<>();
         productCategoryResponses.add(ProductCategoryResponse
                 .builder()
                 .productCategoryName("Electronics")
                 .description("Electronics & Computer Equipment")
+                .productCount(3L)
                 .build());
 
         productCategoryResponses.add(ProductCategoryResponse
                 .builder()
                 .productCategoryName("Lawn Equipment")
                 .description("Lawn & Garden Equipment")
+                .productCount(1L)
                 .build());
+        when(mockProductCategoryRepository.findProductCategoryResponses()).thenReturn(productCategoryResponses);
 
         List<ProductCategoryResponse> actual = subject.getProductCategories();
 
         assertEquals(productCategoryResponses, actual);
+        verify(mockProductCategoryRepository, never()).findAll();
     }
 
     @Test
     public void getProductCategory_whenRetrievedByProductCategoryName_returnsProductCategory() throws Exception {
-        when(mockProductCategoryRepository.findByProductCategoryName("Electronics")).thenReturn(
-                ProductCategory
-                        .builder()
-                        .productCategoryName("Electronics")
-                        .description("Electronics & Computer Equipment")
-                        .build());
-
         ProductCategoryResponse productCategoryResponse = ProductCategoryResponse
                 .builder()
                 .productCategoryName("Electronics")
                 .description("Electronics & Computer Equipment")
+                .productCount(3L)
                 .build();
+        when(mockProductCategoryRepository.findProductCategoryResponseByProductCategoryName("Electronics"))
+                .thenReturn(productCategoryResponse);
 
         ProductCategoryResponse actual = subject.getProductCategory("Electronics");
 
@@ -102,6 +89,7 @@ public class ProductCategoryServiceTest {
                 .builder()
                 .productCategoryName("Stationary Supplies")
                 .description("Stationary & Paper")
+                .productCount(0L)
                 .build();
 
         ProductCategoryResponse actual = subject.addProductCategory(AddProductCategoryRequest
@@ -116,11 +104,11 @@ public class ProductCategoryServiceTest {
     @Test
     public void getProductCategory_doesNotFindProductCatgoryByThatProductCategoryName_throwsProductCategoryNotFoundException() throws Exception {
         when(mockProductCategoryRepository
-                .findByProductCategoryName("InvalidProductCategoryName"))
+                .findProductCategoryResponseByProductCategoryName("InvalidProductCategoryName"))
                 .thenReturn(null);
 
         Assertions.assertThrows(ProductCategoryNotFoundException.class, () ->
                 subject.getProductCategory("InvalidProductCategoryName"));
-        verify(mockProductCategoryRepository).findByProductCategoryName("InvalidProductCategoryName");
+        verify(mockProductCategoryRepository).findProductCategoryResponseByProductCategoryName("InvalidProductCategoryName");
     }
 }
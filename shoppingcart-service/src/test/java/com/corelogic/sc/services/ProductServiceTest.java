@@ -1,27 +1,41 @@
 package com.corelogic.sc.services;
 
+import com.corelogic.sc.caches.KnownKeysFilter;
+import com.corelogic.sc.caches.ProductCatalogCache;
+import com.corelogic.sc.caches.ReadCoalescer;
 import com.corelogic.sc.entities.Product;
 import com.corelogic.sc.entities.ProductCategory;
 import com.corelogic.sc.exceptions.ProductNotFoundException;
 import com.corelogic.sc.requests.AddProductRequest;
+import com.corelogic.sc.requests.ProductLookupRequest;
+import com.corelogic.sc.responses.ProductLookupResponse;
+import com.corelogic.sc.responses.ProductLookupStatus;
 import com.corelogic.sc.responses.ProductResponse;
 import com.corelogic.sc.respositories.ProductCategoryRepository;
 import com.corelogic.sc.respositories.ProductRepository;
+import com.corelogic.sc.respositories.ProductRepository.InventoryCount;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith({MockitoExtension.class})
@@ -33,128 +47,140 @@ public class ProductServiceTest {
     @Mock
     private ProductCategoryRepository mockProductCategoryRepository;
 
+    private KnownKeysFilter knownKeysFilter;
+
     private ProductService subject;
 
     @BeforeEach
     public void setUp() throws Exception {
-        subject = new ProductService(mockProductRepository, mockProductCategoryRepository);
+        knownKeysFilter = new KnownKeysFilter(0.001, 100);
+        subject = new ProductService(mockProductRepository, mockProductCategoryRepository, new ProductCatalogCache(100, 100, 60000),
+                new ReadCoalescer(1000), knownKeysFilter);
     }
 
     @Test
     public void getProducts_returnsAllProductsInProductCategory() {
-
-        when(mockProductRepository.findAll()).thenReturn(Arrays.asList(
-                Product
-                        .builder()
-                        .skuNumber("sku1")
-                        .productName("product1")
-                        .description("product1 description")
-                        .inventoryCount(100)
-                        .price(199.99)
-                        .createdDate(LocalDateTime.now())
-                        .productCategory(ProductCategory
-                                .builder()
-                                .productCategoryName("Electronics")
-                                .description("Electronics").build()).build(),
-                Product
-                        .builder()
-                        .skuNumber("sku2")
-                        .productName("product2")
-                        .description("product2 description")
-                        .inventoryCount(200)
-                        .price(299.99)
-                        .createdDate(LocalDateTime.now())
-                        .productCategory(ProductCategory
-                                .builder()
-                                .productCategoryName("Lawn & Garden")
-                                .description("Lawn & Garden").build()).build()));
-
         List<ProductResponse> expected = Collections.singletonList(ProductResponse
                 .builder()
                 .skuNumber("sku1")
                 .productName("product1")
                 .description("product1 description")
                 .inventoryCount(100)
-                .price(199.99)
+                .price(new BigDecimal("199.99"))
                 .build());
-        List<ProductResponse> actual = subject.getProducts("Electronics");
+        when(mockProductRepository.findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 100)))
+                .thenReturn(expected);
 
-        verify(mockProductRepository).findAll();
+        List<ProductResponse> actual = subject.getProducts("Electronics", null, null);
+
+        verify(mockProductRepository).findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 100));
 
         assertEquals(expected, actual);
     }
 
     @Test
     public void getProducts_returnsNoProductsWhenNonExistInProductCategory() {
-        when(mockProductRepository.findAll()).thenReturn(Arrays.asList(
-                Product
-                        .builder()
-                        .skuNumber("sku1")
-                        .productName("product1")
-                        .description("product1 description")
-                        .inventoryCount(100)
-                        .price(199.99)
-                        .createdDate(LocalDateTime.now())
-                        .productCategory(ProductCategory
-                                .builder()
-                                .productCategoryName("Electronics")
-                                .description("Electronics").build()).build(),
-                Product
-                        .builder()
-                        .skuNumber("sku2")
-                        .productName("product2")
-                        .description("product2 description")
-                        .inventoryCount(200)
-                        .price(299.99)
-                        .createdDate(LocalDateTime.now())
-                        .productCategory(ProductCategory
-                                .builder()
-                                .productCategoryName("Lawn & Garden")
-                                .description("Lawn & Garden").build()).build()));
-
-        List<ProductResponse> actual = subject.getProducts("Sporting Goods");
+        when(mockProductRepository.findProductResponsesByProductCategoryName("Sporting Goods", "", PageRequest.of(0, 100)))
+                .thenReturn(Collections.emptyList());
+
+        List<ProductResponse> actual = subject.getProducts("Sporting Goods", null, null);
 
         assertEquals(Collections.EMPTY_LIST, actual);
     }
 
     @Test
-    public void getProductsBySkuNumber_returnsProduct() throws ProductNotFoundException {
+    public void getProducts_afterSkuNumber_returnsNextPage() {
+        subject.getProducts("Electronics", "sku1", 2);
 
-        when(mockProductRepository.findBySkuNumber("sku1")).thenReturn(Product
-                .builder()
-                .skuNumber("sku1")
-                .productName("product1")
-                .description("product1 description")
-                .inventoryCount(100)
-                .price(199.99)
-                .createdDate(LocalDateTime.now())
-                .productCategory(ProductCategory
-                        .builder()
-                        .productCategoryName("Electronics")
-                        .description("Electronics").build()).build());
+        verify(mockProductRepository).findProductResponsesByProductCategoryName("Electronics", "sku1", PageRequest.of(0, 2));
+    }
 
-        ProductResponse expected = ProductResponse
-                .builder()
-                .skuNumber("sku1")
-                .productName("product1")
-                .description("product1 description")
-                .inventoryCount(100)
-                .price(199.99)
-                .build();
+    @Test
+    public void getProducts_limitAboveMaximum_isCapped() {
+        subject.getProducts("Electronics", null, 100000);
+
+        verify(mockProductRepository).findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 500));
+    }
+
+    @Test
+    public void getProducts_cachedPage_mergesLiveInventoryCounts() {
+        when(mockProductRepository.findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 100)))
+                .thenReturn(Arrays.asList(productResponse("sku1", 100), productResponse("sku2", 50)));
+        List<InventoryCount> inventoryCounts = Collections.singletonList(inventoryCount("sku1", 42));
+        when(mockProductRepository.findInventoryCountsBySkuNumbers(Arrays.asList("sku1", "sku2")))
+                .thenReturn(inventoryCounts);
+
+        subject.getProducts("Electronics", null, null);
+        List<ProductResponse> actual = subject.getProducts("Electronics", null, null);
+
+        verify(mockProductRepository, times(1)).findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 100));
+        assertEquals(Collections.singletonList(productResponse("sku1", 42)), actual);
+    }
 
+    @Test
+    public void getProductsBySkuNumber_cachedProduct_readsOnlyInventoryCount() throws ProductNotFoundException {
+        when(mockProductRepository.findProductResponsesBySkuNumbers(Collections.singletonList("sku1")))
+                .thenReturn(Collections.singletonList(productResponse("sku1", 100)));
+        when(mockProductRepository.findInventoryCountBySkuNumber("sku1")).thenReturn(7);
+
+        subject.getProductBySkuNumber("sku1");
         ProductResponse actual = subject.getProductBySkuNumber("sku1");
 
-        assertEquals(expected, actual);
+        verify(mockProductRepository, times(1)).findProductResponsesBySkuNumbers(Collections.singletonList("sku1"));
+        assertEquals(productResponse("sku1", 7), actual);
+    }
+
+    @Test
+    public void getProductsBySkuNumber_returnsProduct() throws ProductNotFoundException {
+        when(mockProductRepository.findProductResponsesBySkuNumbers(Collections.singletonList("sku1")))
+                .thenReturn(Collections.singletonList(productResponse("sku1", 100)));
+
+        ProductResponse actual = subject.getProductBySkuNumber("sku1");
+
+        assertEquals(productResponse("sku1", 100), actual);
+        verify(mockProductRepository, never()).findBySkuNumber(any());
     }
 
     @Test
     public void getProductsBySkuNumber_whenProductNotFound_throwsProductNotFoundException() {
-        when(mockProductRepository.findBySkuNumber("Invalid SKU#")).thenReturn(null);
+        when(mockProductRepository.findProductResponsesBySkuNumbers(Collections.singletonList("Invalid SKU#")))
+                .thenReturn(Collections.emptyList());
 
         Assertions.assertThrows(ProductNotFoundException.class, () ->
                 subject.getProductBySkuNumber("Invalid SKU#"));
 
-        verify(mockProductRepository).findBySkuNumber("Invalid SKU#");
+        verify(mockProductRepository).findProductResponsesBySkuNumbers(Collections.singletonList("Invalid SKU#"));
+    }
+
+    @Test
+    public void getProductsBySkuNumber_skuNumberRuledOutByKnownKeys_throwsStacklessProductNotFoundExceptionWithoutQuery() {
+        knownKeysFilter.skuNumbers().startRebuild(1);
+        knownKeysFilter.skuNumbers().putRebuilt("sku1");
+        knownKeysFilter.skuNumbers().completeRebuild();
+
+        ProductNotFoundException exception = Assertions.assertThrows(ProductNotFoundException.class, () ->
+                subject.getProductBySkuNumber("Invalid SKU#"));
+
+        assertEquals("No product exists for sku# Invalid SKU#", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+        verifyNoInteractions(mockProductRepository);
+    }
+
+    @Test
+    public void lookupProducts_skuNumbersRuledOutByKnownKeys_areNotQueried() {
+        knownKeysFilter.skuNumbers().startRebuild(1);
+        knownKeysFilter.skuNumbers().putRebuilt("sku1");
+        knownKeysFilter.skuNumbers().completeRebuild();
+        when(mockProductRepository.findProductResponsesBySkuNumbers(new LinkedHashSet<>(Collections.singletonList("sku1"))))
+                .thenReturn(Collections.singletonList(productResponse("sku1", 5)));
+
+        List<ProductLookupResponse> actual = subject.lookupProducts(ProductLookupRequest
+                .builder()
+                .skuNumbers(Arrays.asList("missing", "sku1"))
+                .build());
+
+        assertEquals(ProductLookupStatus.NOT_FOUND, actual.get(0).getStatus());
+        assertEquals(ProductLookupStatus.FOUND, actual.get(1).getStatus());
     }
 
     @Test
@@ -172,7 +198,7 @@ public class ProductServiceTest {
                 .productName("iPhone 10S")
                 .description("iPhone 10S")
                 .inventoryCount(100)
-                .price(1000.99)
+                .price(new BigDecimal("1000.99"))
                 .productCategory(productCategory)
                 .build();
 
@@ -185,7 +211,7 @@ public class ProductServiceTest {
                 .productName("iPhone 10S")
                 .description("iPhone 10S")
                 .inventoryCount(100)
-                .price(1000.99)
+                .price(new BigDecimal("1000.99"))
                 .productCategoryName("Electronics")
                 .build());
 
@@ -195,8 +221,68 @@ public class ProductServiceTest {
                 .productName("iPhone 10S")
                 .description("iPhone 10S")
                 .inventoryCount(100)
-                .price(1000.99)
+                .price(new BigDecimal("1000.99"))
                 .build();
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void addProduct_invalidatesCachedCategoryPages() {
+        ProductCategory productCategory = ProductCategory
+                .builder()
+                .productCategoryName("Electronics")
+                .description("Electronics & Computers")
+                .build();
+        when(mockProductCategoryRepository.findByProductCategoryName("Electronics")).thenReturn(productCategory);
+        when(mockProductRepository.save(any(Product.class))).thenReturn(Product
+                .builder()
+                .skuNumber("IPHONE10S")
+                .productCategory(productCategory)
+                .build());
+
+        subject.getProducts("Electronics", null, null);
+        subject.addProduct(AddProductRequest
+                .builder()
+                .skuNumber("IPHONE10S")
+                .productCategoryName("Electronics")
+                .build());
+        subject.getProducts("Electronics", null, null);
+
+        verify(mockProductRepository, times(2)).findProductResponsesByProductCategoryName("Electronics", "", PageRequest.of(0, 100));
+    }
+
+    @Test
+    public void lookupProducts_keepsRequestOrder_andReportsMissingSkuNumbers() {
+        when(mockProductRepository.findProductResponsesBySkuNumbers(new LinkedHashSet<>(Arrays.asList("sku2", "missing", "sku1"))))
+                .thenReturn(Arrays.asList(productResponse("sku1", 10), productResponse("sku2", 20)));
+
+        List<ProductLookupResponse> actual = subject.lookupProducts(ProductLookupRequest
+                .builder()
+                .skuNumbers(Arrays.asList("sku2", "missing", "sku1"))
+                .build());
+
+        List<ProductLookupResponse> expected = Arrays.asList(
+                ProductLookupResponse.builder().skuNumber("sku2").status(ProductLookupStatus.FOUND).product(productResponse("sku2", 20)).build(),
+                ProductLookupResponse.builder().skuNumber("missing").status(ProductLookupStatus.NOT_FOUND).build(),
+                ProductLookupResponse.builder().skuNumber("sku1").status(ProductLookupStatus.FOUND).product(productResponse("sku1", 10)).build());
+        assertEquals(expected, actual);
+    }
+
+    private static ProductResponse productResponse(String skuNumber, Integer inventoryCount) {
+        return ProductResponse
+                .builder()
+                .skuNumber(skuNumber)
+                .productName("product " + skuNumber)
+                .description("description " + skuNumber)
+                .inventoryCount(inventoryCount)
+                .price(new BigDecimal("199.99"))
+                .build();
+    }
+
+    private static InventoryCount inventoryCount(String skuNumber, Integer count) {
+        InventoryCount inventoryCount = mock(InventoryCount.class);
+        when(inventoryCount.getSkuNumber()).thenReturn(skuNumber);
+        when(inventoryCount.getInventoryCount()).thenReturn(count);
+        return inventoryCount;
+    }
 }
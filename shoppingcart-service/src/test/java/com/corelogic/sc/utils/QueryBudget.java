@@ -0,0 +1,33 @@
+package com.corelogic.sc.utils;
+
+import com.corelogic.sc.metrics.QueryBudgetFilter;
+import com.corelogic.sc.metrics.QueryStatistics;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MockMvc matchers over the SQL statements a request ran, as counted by {@link QueryBudgetFilter}. Use them to pin
+ * an endpoint's query budget, so an N+1 regression fails the acceptance test instead of showing up in production.
+ */
+public class QueryBudget {
+
+    public static ResultMatcher statementsAtMost(long statements) {
+        return result -> {
+            QueryStatistics queryStatistics = (QueryStatistics) result.getRequest().getAttribute(QueryBudgetFilter.ATTRIBUTE);
+            assertNotNull("The request was not counted; is sql.instrumentation.enabled on?", queryStatistics);
+            assertTrue("Expected at most " + statements + " SQL statements but the request ran " + queryStatistics.getStatements(),
+                    queryStatistics.getStatements() <= statements);
+        };
+    }
+
+    public static ResultMatcher statements(long statements) {
+        return result -> {
+            QueryStatistics queryStatistics = (QueryStatistics) result.getRequest().getAttribute(QueryBudgetFilter.ATTRIBUTE);
+            assertNotNull("The request was not counted; is sql.instrumentation.enabled on?", queryStatistics);
+            assertTrue("Expected " + statements + " SQL statements but the request ran " + queryStatistics.getStatements(),
+                    queryStatistics.getStatements() == statements);
+        };
+    }
+}